@@ -0,0 +1,113 @@
+package com.salesapplication.bench;
+
+import com.salesapplication.SalesmicroserviceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the sales service for benchmarks: an in-memory H2 database in MySQL mode that holds the
+ * {@link H2SalesProcedures} alias, and stubbed user and vehicle services that answer every lookup in-process.
+ * Registered as an extra source rather than component-scanned, so it never leaks into the application.
+ */
+public class BenchmarkApplication {
+
+    static final int USERS = 500;
+
+    static final int VEHICLES = 200;
+
+    /**
+     * Starts the application and seeds it with the given number of sales, each with one detail row.
+     *
+     * @param seedSales The number of sales to insert before measuring.
+     * @return The running application context.
+     */
+    static ConfigurableApplicationContext start(int seedSales) {
+        return start(seedSales, "--spring.jpa.show-sql=false");
+    }
+
+    /**
+     * Starts the application with extra command-line arguments and seeds it like {@link #start(int)}.
+     *
+     * @param seedSales The number of sales to insert before measuring.
+     * @param extraArgs Further arguments, e.g. {@code --spring.profiles.active=perf}.
+     * @return The running application context.
+     */
+    static ConfigurableApplicationContext start(int seedSales, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of("--spring.main.web-application-type=none",
+                // The MySQL driver settings of the perf profile mean nothing to H2
+                "--spring.datasource.url=jdbc:h2:mem:salesbench;MODE=MySQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // The Flyway migrations build the schema, so reads are measured against the production indexes
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=warn"));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SalesmicroserviceApplication.class, BenchmarkApplication.class)
+                // Command-line arguments, so they win over application.properties
+                .run(args.toArray(String[]::new));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Users and vehicles belong to the inventory service; the benchmark only needs their IDs
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS insert_sale_records FOR '"
+                + H2SalesProcedures.class.getName() + ".insertSaleRecords'");
+        seed(jdbcTemplate, seedSales);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int seedSales) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 9, 0);
+        List<Object[]> sales = new ArrayList<>(seedSales);
+        List<Object[]> details = new ArrayList<>(seedSales);
+        for (int i = 1; i <= seedSales; i++) {
+            int count = 1 + random.nextInt(3);
+            double price = H2SalesProcedures.UNIT_PRICE * count;
+            sales.add(new Object[] {i, 1 + random.nextInt(USERS), Timestamp.valueOf(start.plusMinutes(i * 7L)), price});
+            details.add(new Object[] {i, 1 + random.nextInt(VEHICLES), price, count});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (sale_id, user_id, sale_date, total_amount) VALUES (?, ?, ?, ?)", sales);
+        jdbcTemplate.batchUpdate("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)", details);
+        jdbcTemplate.execute("ALTER TABLE sales ALTER COLUMN sale_id RESTART WITH " + (seedSales + 1));
+    }
+
+    /**
+     * Replaces the pooled RestTemplate with one that answers every user and vehicle lookup in-process,
+     * so the user lookup and vehicle availability caches still run but no network call is made.
+     *
+     * @return The stubbed RestTemplate.
+     */
+    @Bean
+    @Primary
+    public RestTemplate stubUserServiceRestTemplate() {
+        return new RestTemplate((uri, httpMethod) -> {
+            String path = uri.getPath();
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            // Vehicles report ample stock so the availability cache never rejects a benchmark order
+            String body = path.contains("/vehicles/")
+                    ? "{\"vehicleId\":" + id + ",\"availableCount\":" + Integer.MAX_VALUE + "}"
+                    : "{\"userId\":" + id + "}";
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+    }
+}
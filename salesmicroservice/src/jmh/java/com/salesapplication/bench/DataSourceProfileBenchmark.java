@@ -0,0 +1,86 @@
+package com.salesapplication.bench;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.service.SalesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code addSales} and {@code getAllSales} throughput under the default settings against the {@code perf}
+ * profile, with more caller threads than the default pool has connections so pool sizing shows.
+ * <p>
+ * On the embedded H2 store the difference comes from pool sizing and the SQL echo; the Connector/J
+ * statement cache and batch rewriting only take effect against MySQL, e.g. by running the service with each
+ * profile under {@link LoadDriver}.
+ * Run with {@code -Dbench.args="DataSourceProfileBenchmark -rf json -rff target/jmh-result.json"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(32)
+public class DataSourceProfileBenchmark {
+
+    @Param({"default", "perf"})
+    private String profile;
+
+    @Param({"10000"})
+    private int seedSales;
+
+    private ConfigurableApplicationContext context;
+
+    private SalesService salesService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The default profile keeps application.properties as shipped, SQL echo included
+        context = "perf".equals(profile)
+                ? BenchmarkApplication.start(seedSales, "--spring.profiles.active=perf")
+                : BenchmarkApplication.start(seedSales, "--spring.jpa.show-sql=true");
+        salesService = context.getBean(SalesService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SalesDTO> getAllSales() {
+        return salesService.getAllSales();
+    }
+
+    @Benchmark
+    public Map<String, Object> addSales() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+        vehicle.setVehicleId(1 + random.nextInt(BenchmarkApplication.VEHICLES));
+        vehicle.setCount(1 + random.nextInt(3));
+        SaleOrderRequest order = new SaleOrderRequest();
+        order.setUserId(1 + random.nextInt(BenchmarkApplication.USERS));
+        order.setVehicles(List.of(vehicle));
+        return salesService.addSales(order);
+    }
+}
@@ -0,0 +1,78 @@
+package com.salesapplication.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.SimpleResultSet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * H2 stand-in for the MySQL {@code insert_sale_records} procedure, registered as a Java alias so the
+ * benchmarks can run the real write path. Every vehicle is priced at {@link #UNIT_PRICE}. Like the procedure
+ * it answers with one row holding its status and the new sale's ID.
+ */
+public final class H2SalesProcedures {
+
+    static final double UNIT_PRICE = 25_000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private H2SalesProcedures() {
+    }
+
+    public static ResultSet insertSaleRecords(Connection connection, int userId, String vehicleDataJson, String errorMessage)
+            throws Exception {
+        SimpleResultSet result = new SimpleResultSet();
+        result.addColumn("errorMessage", Types.VARCHAR, 255, 0);
+        result.addColumn("saleId", Types.INTEGER, 10, 0);
+        // H2 first calls the function without arguments to learn its columns
+        if (connection.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+            return result;
+        }
+
+        JsonNode vehicles = OBJECT_MAPPER.readTree(vehicleDataJson);
+        double total = 0;
+        for (JsonNode vehicle : vehicles) {
+            total += UNIT_PRICE * vehicle.get("count").asInt();
+        }
+
+        int saleId;
+        try (PreparedStatement insertSale = connection.prepareStatement(
+                "INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            insertSale.setInt(1, userId);
+            insertSale.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            insertSale.setDouble(3, total);
+            insertSale.executeUpdate();
+            saleId = generatedKey(insertSale);
+        }
+
+        try (PreparedStatement insertDetail = connection.prepareStatement(
+                "INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)")) {
+            for (JsonNode vehicle : vehicles) {
+                int count = vehicle.get("count").asInt();
+                insertDetail.setInt(1, saleId);
+                insertDetail.setInt(2, vehicle.get("vehicleId").asInt());
+                insertDetail.setDouble(3, UNIT_PRICE * count);
+                insertDetail.setDouble(4, count);
+                insertDetail.addBatch();
+            }
+            insertDetail.executeBatch();
+        }
+        result.addRow("success", saleId);
+        return result;
+    }
+
+    private static int generatedKey(Statement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+}
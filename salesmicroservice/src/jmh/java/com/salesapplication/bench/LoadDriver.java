@@ -0,0 +1,145 @@
+package com.salesapplication.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load generator for comparing execution modes of a running sales service,
+ * e.g. platform threads against {@code spring.threads.virtual.enabled=true} under the same load.
+ * Each client thread sends its next request as soon as the previous one completes; the report gives
+ * throughput and latency percentiles.
+ * <p>
+ * Arguments: {@code <baseUrl> <scenario> [concurrency=200] [seconds=60]}, where scenario is one of
+ * {@code page} (GET /sales/getall?size=100), {@code history} (GET /sales/users/{id}) or
+ * {@code addsales} (POST /sales/addsales).
+ */
+public final class LoadDriver {
+
+    private static final int USERS = 500;
+
+    private static final int VEHICLES = 200;
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadDriver <baseUrl> <page|history|addsales> [concurrency] [seconds]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        String scenario = args[1];
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Math.min(10, seconds / 4)).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<ClientResult>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(42 + i);
+            futures.add(clients.submit(() -> runClient(client, baseUrl, scenario, random, warmupEnd, end)));
+        }
+
+        long requests = 0;
+        long errors = 0;
+        List<long[]> latencies = new ArrayList<>(concurrency);
+        for (Future<ClientResult> future : futures) {
+            ClientResult result = future.get();
+            requests += result.count;
+            errors += result.errors;
+            latencies.add(Arrays.copyOf(result.latencies, result.count));
+        }
+        clients.shutdown();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("scenario=%s concurrency=%d seconds=%d%n", scenario, concurrency, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n", requests, errors, requests / (double) seconds);
+        if (all.length > 0) {
+            System.out.printf("p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    percentile(all, 0.999), all[all.length - 1] / 1e6);
+        }
+        System.exit(0);
+    }
+
+    private static ClientResult runClient(HttpClient client, String baseUrl, String scenario, SplittableRandom random,
+                                          long warmupEnd, long end) {
+        ClientResult result = new ClientResult();
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= end) {
+                return result;
+            }
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request(baseUrl, scenario, random), HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 500;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (start >= warmupEnd) {
+                result.record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private static HttpRequest request(String baseUrl, String scenario, SplittableRandom random) {
+        switch (scenario) {
+            case "page":
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/sales/getall?size=100&afterId=" + random.nextInt(10_000)))
+                        .GET().build();
+            case "history":
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/sales/users/" + (1 + random.nextInt(USERS))))
+                        .GET().build();
+            case "addsales":
+                String order = "{\"userId\":" + (1 + random.nextInt(USERS)) + ",\"vehicles\":[{\"vehicleId\":"
+                        + (1 + random.nextInt(VEHICLES)) + ",\"count\":1}]}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/sales/addsales"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(order))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class ClientResult {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.salesapplication.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the addSales payload handling before and after the typed order command:
+ * Map binding plus casts plus a per-request ObjectMapper, against a typed reader and a shared writer.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} for the per-request allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class OrderPayloadBenchmark {
+
+    private static final String ORDER_JSON = "{\"userId\":42,\"vehicles\":["
+            + "{\"vehicleId\":101,\"count\":1},"
+            + "{\"vehicleId\":205,\"count\":2},"
+            + "{\"vehicleId\":317,\"count\":1}]}";
+
+    private byte[] payload;
+
+    private ObjectMapper requestMapper;
+
+    private ObjectReader orderReader;
+
+    private ObjectWriter vehiclesWriter;
+
+    @Setup
+    public void setUp() {
+        payload = ORDER_JSON.getBytes(StandardCharsets.UTF_8);
+        // Spring MVC binds request bodies with one shared ObjectMapper in both variants
+        requestMapper = new ObjectMapper();
+        orderReader = requestMapper.readerFor(SaleOrderRequest.class);
+        vehiclesWriter = requestMapper.writerFor(new TypeReference<List<VehiclePurchaseRequest>>() {});
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String mapBinding() throws Exception {
+        Map<String, Object> saleDetails = requestMapper.readValue(payload, Map.class);
+        int userId = (int) saleDetails.get("userId");
+        List<Map<String, Object>> vehiclesList = (List<Map<String, Object>>) saleDetails.get("vehicles");
+        List<VehiclePurchaseRequest> vehicles = vehiclesList.stream()
+                .map(vehicleData -> {
+                    VehiclePurchaseRequest request = new VehiclePurchaseRequest();
+                    request.setVehicleId((int) vehicleData.get("vehicleId"));
+                    request.setCount((int) vehicleData.get("count"));
+                    return request;
+                }).collect(Collectors.toList());
+        ObjectMapper objectMapper = new ObjectMapper();
+        return userId + objectMapper.writeValueAsString(vehicles);
+    }
+
+    @Benchmark
+    public String typedBinding() throws Exception {
+        SaleOrderRequest order = orderReader.readValue(payload);
+        order.validate();
+        return order.getUserId() + vehiclesWriter.writeValueAsString(order.getVehicles());
+    }
+}
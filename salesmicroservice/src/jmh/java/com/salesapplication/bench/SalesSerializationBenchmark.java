@@ -0,0 +1,107 @@
+package com.salesapplication.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.model.Sales;
+import com.salesapplication.model.SalesDetails;
+import com.vehicleinventorysystem.model.User;
+import com.vehicleinventorysystem.model.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures entity-to-DTO conversion and JSON serialization of SalesDTO and SalesDetailsDTO lists,
+ * using an ObjectMapper configured the way Spring Boot configures the application one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class SalesSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+
+    private List<Sales> sales;
+
+    private List<SalesDetails> salesDetails;
+
+    private List<SalesDTO> salesDTOs;
+
+    private List<SalesDetailsDTO> salesDetailsDTOs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        sales = new ArrayList<>(rows);
+        salesDetails = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            User user = new User();
+            user.setUserId(1 + random.nextInt(500));
+            Sales sale = new Sales();
+            sale.setSaleId(i);
+            sale.setUser(user);
+            sale.setSaleDate(start.plusMinutes(i));
+            sale.setSalePrice(10_000 + random.nextInt(90_000));
+            sales.add(sale);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setVehicleId(1 + random.nextInt(200));
+            SalesDetails detail = new SalesDetails(sale, vehicle, sale.getSalePrice());
+            detail.setSaleDetailId(i);
+            detail.setVehicleCount(1 + random.nextInt(3));
+            salesDetails.add(detail);
+        }
+        salesDTOs = convertSales();
+        salesDetailsDTOs = convertSalesDetails();
+    }
+
+    @Benchmark
+    public List<SalesDTO> convertSales() {
+        return sales.stream()
+                .map(sale -> new SalesDTO(sale.getSaleId(), sale.getSalePrice(), sale.getUser().getUserId(), sale.getSaleDate()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<SalesDetailsDTO> convertSalesDetails() {
+        return salesDetails.stream()
+                .map(SalesDetailsDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeSales() throws Exception {
+        return objectMapper.writeValueAsBytes(salesDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeSalesDetails() throws Exception {
+        return objectMapper.writeValueAsBytes(salesDetailsDTOs);
+    }
+}
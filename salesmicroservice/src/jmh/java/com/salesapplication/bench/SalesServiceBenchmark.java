@@ -0,0 +1,92 @@
+package com.salesapplication.bench;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.service.SalesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full SalesService calls against the embedded H2 store and the stubbed user service
+ * (see {@link BenchmarkApplication}). Each benchmark method runs in its own fork, so rows
+ * added by {@link #addSales} never change what the read benchmarks measure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SalesServiceBenchmark {
+
+    @Param({"10000"})
+    private int seedSales;
+
+    private ConfigurableApplicationContext context;
+
+    private SalesService salesService;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(seedSales);
+        salesService = context.getBean(SalesService.class);
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SalesDTO> getAllSales() {
+        return salesService.getAllSales();
+    }
+
+    @Benchmark
+    public List<SalesDTO> getSalesPage() {
+        return salesService.getSalesPage(random.nextInt(seedSales - 100), 100);
+    }
+
+    @Benchmark
+    public void streamAllSales(Blackhole blackhole) {
+        salesService.streamAllSales(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<SalesDTO> getSalesByUserId() {
+        return salesService.getSalesByUserId(1 + random.nextInt(BenchmarkApplication.USERS));
+    }
+
+    @Benchmark
+    public Map<String, Object> addSales() {
+        VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+        vehicle.setVehicleId(1 + random.nextInt(BenchmarkApplication.VEHICLES));
+        vehicle.setCount(1 + random.nextInt(3));
+        SaleOrderRequest order = new SaleOrderRequest();
+        order.setUserId(1 + random.nextInt(BenchmarkApplication.USERS));
+        order.setVehicles(List.of(vehicle));
+        return salesService.addSales(order);
+    }
+}
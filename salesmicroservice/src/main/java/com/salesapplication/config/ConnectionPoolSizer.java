@@ -0,0 +1,89 @@
+package com.salesapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the Hikari pools from the database server's capacity instead of Hikari's fixed default of 10.
+ * <p>
+ * The pool size follows the HikariCP sizing guidance, {@code connections = cores * 2 + effective spindles},
+ * where cores are those of the database server ({@code connectionPool.databaseCores}) and effective spindles
+ * approximate how many I/O requests its storage serves in parallel ({@code connectionPool.effectiveSpindles};
+ * 1 for a fully cached working set). The result is the budget of the whole database, so it is split across the
+ * {@code connectionPool.instances} running copies of this service. Pools are fixed-size: the minimum idle count
+ * is set to the same value, so no connection is opened on the request path under a burst.
+ * <p>
+ * An explicit {@code spring.datasource.hikari.maximum-pool-size} or {@code minimum-idle} always wins.
+ */
+public class ConnectionPoolSizer implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolSizer.class);
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari.";
+
+    private final Binder binder;
+
+    private final int poolSize;
+
+    /**
+     * Constructor for ConnectionPoolSizer.
+     *
+     * @param environment The environment holding the {@code connectionPool} and Hikari settings.
+     */
+    public ConnectionPoolSizer(Environment environment) {
+        this.binder = Binder.get(environment);
+        this.poolSize = poolSize(
+                environment.getProperty("connectionPool.databaseCores", Integer.class, Runtime.getRuntime().availableProcessors()),
+                environment.getProperty("connectionPool.effectiveSpindles", Integer.class, 1),
+                environment.getProperty("connectionPool.instances", Integer.class, 1));
+    }
+
+    /**
+     * Computes the pool size of one service instance.
+     *
+     * @param databaseCores The number of CPU cores of the database server.
+     * @param effectiveSpindles The number of I/O requests the database storage serves in parallel.
+     * @param instances The number of service instances sharing the database.
+     * @return {@code ceil((databaseCores * 2 + effectiveSpindles) / instances)}, but at least 2.
+     */
+    static int poolSize(int databaseCores, int effectiveSpindles, int instances) {
+        if (databaseCores <= 0 || effectiveSpindles < 0 || instances <= 0) {
+            throw new IllegalArgumentException("connectionPool.databaseCores and instances must be greater than 0 "
+                    + "and effectiveSpindles must not be negative");
+        }
+        int budget = databaseCores * 2 + effectiveSpindles;
+        return Math.max(2, (budget + instances - 1) / instances);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            size(dataSource);
+        } else if (bean instanceof ReplicaRoutingDataSource routingDataSource) {
+            routingDataSource.pools().forEach(this::size);
+        }
+        return bean;
+    }
+
+    private void size(HikariDataSource dataSource) {
+        if (!isSet("maximum-pool-size")) {
+            dataSource.setMaximumPoolSize(poolSize);
+        }
+        if (!isSet("minimum-idle")) {
+            dataSource.setMinimumIdle(dataSource.getMaximumPoolSize());
+        }
+        log.atInfo()
+                .addKeyValue("pool", dataSource.getPoolName())
+                .addKeyValue("maximumPoolSize", dataSource.getMaximumPoolSize())
+                .addKeyValue("minimumIdle", dataSource.getMinimumIdle())
+                .log("Connection pool sized");
+    }
+
+    private boolean isSet(String property) {
+        return binder.bind(HIKARI_PREFIX + property, Integer.class).isBound();
+    }
+}
@@ -0,0 +1,26 @@
+package com.salesapplication.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+/**
+ * Beans of the {@code perf} profile; its property settings are in {@code application-perf.properties}.
+ */
+@Configuration
+@Profile("perf")
+public class PerformanceProfileConfig {
+
+    /**
+     * Registers the pool sizer. Static, so it is created before the data source beans it post-processes.
+     *
+     * @param environment The environment holding the pool sizing settings.
+     * @return A {@link ConnectionPoolSizer}.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(Environment environment) {
+        return new ConnectionPoolSizer(environment);
+    }
+}
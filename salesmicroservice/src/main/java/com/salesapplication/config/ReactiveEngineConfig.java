@@ -0,0 +1,92 @@
+package com.salesapplication.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the reactive engine, active when {@code spring.main.web-application-type=reactive}.
+ * <p>
+ * The R2DBC pool is deliberately not exposed as a {@code ConnectionFactory} bean: Spring Boot backs the
+ * JDBC DataSource off when one exists, and the blocking services must keep working in both engines.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEngineConfig {
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates the non-blocking database client over a pooled R2DBC connection factory.
+     *
+     * @param url The R2DBC URL of the sales database.
+     * @param username The database user.
+     * @param password The database password.
+     * @param initialSize The number of connections opened at startup.
+     * @param maxSize The maximum number of pooled connections.
+     * @param maxIdleTime How long an idle connection is kept.
+     * @return A {@link DatabaseClient} for the reactive repositories.
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${reactive.r2dbc.url}") String url,
+                                                 @Value("${spring.datasource.username}") String username,
+                                                 @Value("${spring.datasource.password}") String password,
+                                                 @Value("${reactive.r2dbc.initialSize:5}") int initialSize,
+                                                 @Value("${reactive.r2dbc.maxSize:20}") int maxSize,
+                                                 @Value("${reactive.r2dbc.maxIdleTime:30m}") Duration maxIdleTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("sales-r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Creates the operator that runs a reactive pipeline in one R2DBC transaction.
+     * The transaction manager stays private to it, so {@code @Transactional} on the blocking
+     * services still resolves to the single JPA transaction manager.
+     *
+     * @param reactiveDatabaseClient The database client whose pool the transactions use.
+     * @return A {@link TransactionalOperator} for the reactive services.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(DatabaseClient reactiveDatabaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(reactiveDatabaseClient.getConnectionFactory()));
+    }
+
+    /**
+     * Creates the non-blocking client used to call the user service.
+     *
+     * @param builder The auto-configured WebClient builder.
+     * @return A {@link WebClient} for outbound user service calls.
+     */
+    @Bean
+    public WebClient userServiceWebClient(WebClient.Builder builder) {
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.salesapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting of the servlet engine's JDBC connections, active when {@code salesReplica.urls} is set.
+ * <p>
+ * Transactions marked {@code readOnly} read from the replicas in {@code salesReplica.urls}; all other work,
+ * order placement included, stays on the {@code spring.datasource.url} primary. Every pool gets the
+ * {@code spring.datasource.hikari} settings and its own name, so the {@code hikaricp.connections} metrics are
+ * tagged {@code pool=primary}, {@code pool=replica-1} and so on. See {@link ReplicaRoutingDataSource} for the
+ * lag-based fallback.
+ */
+@Configuration
+@ConditionalOnProperty(name = "salesReplica.urls")
+public class ReadReplicaConfig {
+
+    @Value("${salesReplica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${salesReplica.maxLag:2s}")
+    private Duration maxLag;
+
+    @Value("${salesReplica.lagQuery:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    @Value("${salesReplica.lagColumn:Seconds_Behind_Source}")
+    private String lagColumn;
+
+    /**
+     * Creates the data source that routes between the primary and replica pools.
+     *
+     * @param properties The {@code spring.datasource} settings the pools are built from.
+     * @param environment The environment the {@code spring.datasource.hikari} settings are bound from.
+     * @param meterRegistry The registry that receives the pool and replica metrics.
+     * @return A {@link ReplicaRoutingDataSource} owning all pools.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), ReplicaRoutingDataSource.PRIMARY,
+                environment, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = pool(properties, url.trim(), "replica-" + (replicas.size() + 1), environment, meterRegistry);
+            // Catches writes that reach a replica by mistake instead of letting them diverge from the primary
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, lagQuery, lagColumn, meterRegistry);
+    }
+
+    /**
+     * Creates the application data source, which defers choosing a pool until the first statement of a
+     * transaction, after its read-only flag is known.
+     *
+     * @param routingDataSource The routing data source.
+     * @return A {@link LazyConnectionDataSourceProxy} over the routing data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String poolName,
+                                         Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
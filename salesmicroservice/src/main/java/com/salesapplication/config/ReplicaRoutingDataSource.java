@@ -0,0 +1,179 @@
+package com.salesapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * Replicas are picked round-robin among those whose replication lag, polled every
+ * {@code salesReplica.lagCheckInterval}, is known and within {@code salesReplica.maxLag}. When none qualifies
+ * the read falls back to the primary and is counted in {@code sales.replica.fallback}. A replica starts out
+ * unhealthy, so reads stay on the primary until its first lag check has passed.
+ * <p>
+ * Only the transaction's read-only flag decides the target, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager opens its
+ * connection before the flag is bound, and the proxy defers the real connection to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final long maxLagSeconds;
+
+    private final String lagQuery;
+
+    private final String lagColumn;
+
+    private final Counter fallbacks;
+
+    /**
+     * Constructor for ReplicaRoutingDataSource.
+     *
+     * @param primary The pool of the primary, which takes all writes.
+     * @param replicas The pools of the replicas, each named by its Hikari pool name.
+     * @param maxLag The replication lag above which a replica stops taking reads.
+     * @param lagQuery The statement run on a replica to read its replication status.
+     * @param lagColumn The column of the status row holding the lag in seconds; null when replication is stopped.
+     * @param meterRegistry The registry that receives the lag, health and fallback metrics.
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                                    String lagQuery, String lagColumn, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.fallbacks = Counter.builder("sales.replica.fallback")
+                .description("Read-only transactions sent to the primary because no replica was healthy")
+                .register(meterRegistry);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.name(), replica.dataSource);
+            Gauge.builder("sales.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the replica as of the last check; NaN when unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("sales.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica currently takes reads")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica.name();
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Reads the replication lag of every replica and takes lagging or unreachable ones out of rotation.
+     */
+    @Scheduled(fixedDelayString = "${salesReplica.lagCheckInterval:5s}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            Double lag = readLag(replica);
+            boolean healthy = lag != null && lag <= maxLagSeconds;
+            if (healthy != replica.healthy) {
+                log.atLevel(healthy ? Level.INFO : Level.WARN)
+                        .addKeyValue("replica", replica.name())
+                        .addKeyValue("lagSeconds", lag)
+                        .log(healthy ? "Replica back in rotation" : "Replica taken out of rotation");
+            }
+            replica.lagSeconds = lag != null ? lag : Double.NaN;
+            replica.healthy = healthy;
+        }
+    }
+
+    private Double readLag(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery(lagQuery)) {
+            if (!status.next()) {
+                // Not configured as a replica, so there is nothing to say how fresh it is
+                return null;
+            }
+            Number lag = (Number) status.getObject(lagColumn);
+            return lag != null ? lag.doubleValue() : null;
+        } catch (Exception e) {
+            log.atDebug().addKeyValue("replica", replica.name()).setCause(e).log("Replica lag check failed");
+            return null;
+        }
+    }
+
+    /**
+     * @return The primary pool followed by the replica pools.
+     */
+    List<HikariDataSource> pools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primary);
+        replicas.forEach(replica -> pools.add(replica.dataSource));
+        return pools;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy;
+
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+    }
+}
@@ -1,22 +1,101 @@
 package com.salesapplication.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * Configuration class for setting up application-wide beans.
  */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${httpClient.maxTotalConnections:200}")
+    private int maxTotalConnections;
+
+    @Value("${httpClient.maxConnectionsPerRoute:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${httpClient.connectTimeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${httpClient.readTimeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${httpClient.connectionRequestTimeout:1s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${httpClient.idleEvictionTime:30s}")
+    private Duration idleEvictionTime;
+
+    @Value("${httpClient.connectionTimeToLive:5m}")
+    private Duration connectionTimeToLive;
+
+    /**
+     * Creates the pooled connection manager shared by all outbound HTTP calls.
+     * Pool usage is published through the {@code httpcomponents.httpclient.pool} metrics.
+     *
+     * @param meterRegistry The registry that receives the pool metrics.
+     * @return A connection manager with per-route limits and connect/read timeouts.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotalConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTimeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "outbound").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * Creates the HTTP client used by {@link RestTemplate}. Kept-alive connections are reused
+     * from the pool, and idle or expired ones are evicted in the background.
+     *
+     * @param connectionManager The pooled connection manager.
+     * @return A configured {@link CloseableHttpClient}.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleEvictionTime))
+                .evictExpiredConnections()
+                .build();
+    }
+
     /**
-     * Creates and configures a {@link RestTemplate} bean.
-     * 
+     * Creates and configures a {@link RestTemplate} bean backed by the pooled HTTP client.
+     *
+     * @param httpClient The pooled HTTP client.
      * @return A new instance of {@link RestTemplate}.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
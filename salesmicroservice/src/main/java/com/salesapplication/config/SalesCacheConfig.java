@@ -0,0 +1,90 @@
+package com.salesapplication.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the read-through caches for sale lookups.
+ * <p>
+ * Both caches are bounded by an estimated size in bytes rather than an entry count, because one cached
+ * list of sales details can be many times larger than one sale. Hit ratios are published by Spring Boot
+ * as the {@code cache.gets} metrics, and the estimated footprint as {@code cache.estimated.size}.
+ */
+@Configuration
+// Outside the transaction interceptor, so evictions happen after the write has committed
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class SalesCacheConfig {
+
+    /** Cache of SalesDTO by sale ID. */
+    public static final String SALES_BY_ID = "salesById";
+
+    /** Cache of the SalesDetailsDTO list of a sale, by sale ID. */
+    public static final String SALES_DETAILS_BY_SALE_ID = "salesDetailsBySaleId";
+
+    // Rough retained sizes on a 64-bit JVM with compressed oops; the entry overhead covers
+    // the cache node, the boxed sale ID key and the list or DTO header
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int SALES_DTO_BYTES = 96;
+    private static final int SALES_DETAILS_DTO_BYTES = 48;
+    private static final int LIST_ELEMENT_BYTES = 8;
+
+    @Value("${salesCache.salesByIdMaxSize:16MB}")
+    private DataSize salesByIdMaxSize;
+
+    @Value("${salesCache.salesDetailsMaxSize:32MB}")
+    private DataSize salesDetailsMaxSize;
+
+    @Value("${salesCache.ttl:1h}")
+    private Duration ttl;
+
+    /**
+     * Creates the cache manager holding the sale lookup caches.
+     *
+     * @param meterRegistry The registry that receives the estimated cache sizes.
+     * @return A {@link CacheManager} with the {@value #SALES_BY_ID} and {@value #SALES_DETAILS_BY_SALE_ID} caches.
+     */
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(SALES_BY_ID, monitored(meterRegistry, SALES_BY_ID,
+                build(salesByIdMaxSize, (saleId, sale) -> ENTRY_OVERHEAD_BYTES + SALES_DTO_BYTES)));
+        cacheManager.registerCustomCache(SALES_DETAILS_BY_SALE_ID, monitored(meterRegistry, SALES_DETAILS_BY_SALE_ID,
+                build(salesDetailsMaxSize, (saleId, details) ->
+                        ENTRY_OVERHEAD_BYTES + ((List<?>) details).size() * (SALES_DETAILS_DTO_BYTES + LIST_ELEMENT_BYTES))));
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> build(DataSize maxSize, Weigher<Object, Object> weigher) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(weigher)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static Cache<Object, Object> monitored(MeterRegistry meterRegistry, String name, Cache<Object, Object> cache) {
+        Gauge.builder("cache.estimated.size", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Estimated memory retained by the cache entries")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,35 @@
+package com.salesapplication.config;
+
+import com.salesapplication.service.SalesOutcome;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a {@code result} tag to the {@code http.server.requests} metrics so latency can be broken down
+ * per endpoint and per outcome class (success, user_not_found, insufficient_inventory, db_error, ...).
+ * The outcome is the one recorded by the service through {@link SalesOutcome#record()}, falling back to
+ * the response status when nothing was recorded.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SalesOutcomeObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of("result", resolveOutcome(context).tagValue()));
+    }
+
+    private static SalesOutcome resolveOutcome(ServerRequestObservationContext context) {
+        if (context.getCarrier().getAttribute(SalesOutcome.ATTRIBUTE) instanceof SalesOutcome recorded) {
+            return recorded;
+        }
+        if (context.getError() != null) {
+            return SalesOutcome.of(context.getError());
+        }
+        return context.getResponse() != null ? SalesOutcome.ofStatus(context.getResponse().getStatus()) : SalesOutcome.ERROR;
+    }
+}
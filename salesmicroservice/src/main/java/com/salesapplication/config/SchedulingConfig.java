@@ -0,0 +1,12 @@
+package com.salesapplication.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs of the service, such as refreshing the sales rollups.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,206 @@
+package com.salesapplication.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.service.IdempotencyStore;
+import com.salesapplication.service.ReactiveSalesService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reactive controller for the sales endpoints, active when the application runs as a reactive web application.
+ * Paths and response bodies match {@link SalesController}; list endpoints can also be read as newline-delimited JSON.
+ */
+@RestController
+@RequestMapping("/sales")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveSalesService salesService;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    public ReactiveSalesController(ReactiveSalesService salesService, IdempotencyStore idempotencyStore) {
+        this.salesService = salesService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Endpoint to get all sales records. When a page size is given the records are returned
+     * one keyset page at a time, together with the cursor for the next page.
+     *
+     * @param afterId Optional cursor; only sales with an ID greater than this are returned.
+     * @param size Optional page size; when absent the whole table is returned.
+     * @return Mono of a ResponseEntity containing the list of sales records or an error message.
+     */
+    @GetMapping(value = "/getall", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getAllSales(@RequestParam(value = "afterId", defaultValue = "0") int afterId,
+                                                                 @RequestParam(value = "size", required = false) Integer size) {
+        Flux<SalesDTO> sales = size == null ? salesService.getAllSales() : salesService.getSalesPage(afterId, size);
+        return sales.collectList()
+                .map(list -> {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("success", true);
+                    body.put("data", list);
+                    if (size != null && !list.isEmpty()) {
+                        body.put("nextAfterId", list.get(list.size() - 1).getSaleId());
+                    }
+                    return ResponseEntity.ok(body);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> failure(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch sales data"));
+    }
+
+    /**
+     * Endpoint to read all sales records, or one keyset page of them, as newline-delimited JSON.
+     * Records are written as they arrive from the database and only as fast as the client reads them.
+     *
+     * @param afterId Optional cursor; only sales with an ID greater than this are returned.
+     * @param size Optional page size; when absent the whole table is returned.
+     * @return Flux emitting one SalesDTO per line.
+     */
+    @GetMapping(value = {"/getall", "/getall/stream"}, produces = NDJSON)
+    public Flux<SalesDTO> streamAllSales(@RequestParam(value = "afterId", defaultValue = "0") int afterId,
+                                         @RequestParam(value = "size", required = false) Integer size) {
+        return size == null ? salesService.getAllSales() : salesService.getSalesPage(afterId, size);
+    }
+
+    /**
+     * Endpoint to get a sales record by its ID.
+     *
+     * @param id The ID of the sales record.
+     * @return Mono of a ResponseEntity containing the sales record or an error message.
+     */
+    @GetMapping("/getbyid/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getSaleById(@PathVariable int id) {
+        return salesService.getSaleById(id)
+                .map(salesDTO -> ResponseEntity.ok(Map.<String, Object>of("success", true, "data", salesDTO)))
+                .switchIfEmpty(failure(HttpStatus.NOT_FOUND, "Sale record not found"))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch sale data"));
+    }
+
+    /**
+     * Endpoint to update a sales record.
+     *
+     * @param id The ID of the sales record to update.
+     * @param salesDTO The updated sales data.
+     * @return Mono of a ResponseEntity containing the updated sales record or an error message.
+     */
+    @PutMapping("/update/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> updateSale(@PathVariable int id, @RequestBody SalesDTO salesDTO) {
+        return salesService.updateSale(id, salesDTO)
+                .map(updated -> ResponseEntity.ok(Map.<String, Object>of("success", true, "data", updated, "message", "Sale updated successfully")))
+                .switchIfEmpty(failure(HttpStatus.NOT_FOUND, "Sale record not found"))
+                .onErrorResume(IllegalArgumentException.class, e -> failure(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update sale data"));
+    }
+
+    /**
+     * Endpoint to delete a sales record.
+     *
+     * @param id The ID of the sales record to delete.
+     * @return Mono of a ResponseEntity indicating the success or failure of the delete operation.
+     */
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> deleteSale(@PathVariable int id) {
+        return salesService.deleteSaleById(id)
+                .map(deleted -> deleted
+                        ? ResponseEntity.ok(Map.<String, Object>of("success", true, "message", "Sale record deleted successfully"))
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.<String, Object>of("success", false, "message", "Sale record not found")))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete sale record"));
+    }
+
+    /**
+     * Endpoint to get sales records by user ID.
+     *
+     * @param userId The ID of the user whose sales records are to be fetched.
+     * @return Mono of a ResponseEntity containing the list of sales records for the user or an error message.
+     */
+    @GetMapping(value = "/users/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getSalesByUserId(@PathVariable int userId) {
+        return salesService.getSalesByUserId(userId)
+                .collectList()
+                .map(salesDTOs -> salesDTOs.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.<String, Object>of("success", false, "message", "No sales found for user ID " + userId))
+                        : ResponseEntity.ok(Map.<String, Object>of("success", true, "data", salesDTOs)))
+                .onErrorResume(IllegalArgumentException.class, e -> failure(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch sales data for user ID " + userId));
+    }
+
+    /**
+     * Endpoint to read the sales records of a user as newline-delimited JSON.
+     *
+     * @param userId The ID of the user whose sales records are to be fetched.
+     * @return Flux emitting one SalesDTO per line; fails if the user is unknown.
+     */
+    @GetMapping(value = "/users/{userId}", produces = NDJSON)
+    public Flux<SalesDTO> streamSalesByUserId(@PathVariable int userId) {
+        return salesService.getSalesByUserId(userId);
+    }
+
+    /**
+     * Endpoint to get the purchase summary of a user: number of sales, total spend and last purchase date.
+     *
+     * @param userId The ID of the user whose summary is to be fetched.
+     * @return Mono of a ResponseEntity containing the summary or an error message.
+     */
+    @GetMapping("/users/{userId}/summary")
+    public Mono<ResponseEntity<Map<String, Object>>> getUserSalesSummary(@PathVariable int userId) {
+        return salesService.getUserSalesSummary(userId)
+                .map(summary -> ResponseEntity.ok(Map.<String, Object>of("success", true, "data", summary)))
+                .switchIfEmpty(failure(HttpStatus.NOT_FOUND, "No sales found for user ID " + userId))
+                .onErrorResume(e -> failure(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch sales summary for user ID " + userId));
+    }
+
+    /**
+     * Endpoint to add new sales records. With an {@code Idempotency-Key} header the order is written at most
+     * once per key: retries get the first response back, and concurrent duplicates wait for it.
+     *
+     * @param saleDetails The order, including the user ID and vehicle details.
+     * @param idempotencyKey Optional client-chosen key identifying this order across retries.
+     * @return Mono of a ResponseEntity indicating the success or failure of the add operation.
+     */
+    @PostMapping("/addsales")
+    public Mono<ResponseEntity<Map<String, Object>>> addSales(@RequestBody SaleOrderRequest saleDetails,
+                                                              @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return processOrder(saleDetails);
+        }
+        return Mono.defer(() -> Mono.fromFuture(idempotencyStore.execute("/sales/addsales", idempotencyKey, saleDetails,
+                        () -> processOrder(saleDetails).toFuture())))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest()
+                        .body(Map.<String, Object>of("status", "error", "message", e.getMessage()))));
+    }
+
+    private Mono<ResponseEntity<Map<String, Object>>> processOrder(SaleOrderRequest saleDetails) {
+        return salesService.addSales(saleDetails).map(response -> {
+            if (response.get("status").equals("success")) {
+                return ResponseEntity.ok(response);
+            }
+            String errorMessage = (String) response.get("message");
+            if (errorMessage.startsWith("Invalid input") || errorMessage.contains("User with ID")
+                    || errorMessage.contains("Insufficient inventory")) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        });
+    }
+
+    private static Mono<ResponseEntity<Map<String, Object>>> failure(HttpStatus status, String message) {
+        return Mono.just(ResponseEntity.status(status).body(Map.of("success", false, "message", message)));
+    }
+}
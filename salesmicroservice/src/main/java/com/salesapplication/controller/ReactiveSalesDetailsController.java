@@ -0,0 +1,140 @@
+package com.salesapplication.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.service.ReactiveSalesDetailsService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Reactive controller for the SalesDetails endpoints, active when the application runs as a reactive web application.
+ * Paths and status codes match {@link SalesDetailsController}; list endpoints can also be read as newline-delimited JSON.
+ */
+@RestController
+@RequestMapping("/sales/sales-details")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesDetailsController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveSalesDetailsService salesDetailsService;
+
+    @Autowired
+    public ReactiveSalesDetailsController(ReactiveSalesDetailsService salesDetailsService) {
+        this.salesDetailsService = salesDetailsService;
+    }
+
+    /**
+     * Endpoint to create a new SalesDetails record.
+     *
+     * @param salesDetails The SalesDetails record to be created.
+     * @return Mono of a ResponseEntity containing a success or error message.
+     */
+    @PostMapping("/add")
+    public Mono<ResponseEntity<Map<String, String>>> createSalesDetails(@RequestBody SalesDetailsDTO salesDetails) {
+        return salesDetailsService.createSalesDetails(salesDetails)
+                .map(response -> new ResponseEntity<>(response,
+                        response.containsKey("success") ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Endpoint to get all SalesDetails records.
+     *
+     * @return Mono of a ResponseEntity containing the list of all SalesDetails records or an error message.
+     */
+    @GetMapping(value = "/getall", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getAllSalesDetails() {
+        return salesDetailsService.getAllSalesDetails()
+                .collectList()
+                .map(details -> new ResponseEntity<Map<String, Object>>(Map.of("success", details), HttpStatus.OK))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<Map<String, Object>>(
+                        Map.of("error", "Could not fetch sales details: " + e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    /**
+     * Endpoint to read all SalesDetails records as newline-delimited JSON.
+     *
+     * @return Flux emitting one SalesDetailsDTO per line.
+     */
+    @GetMapping(value = "/getall", produces = NDJSON)
+    public Flux<SalesDetailsDTO> streamAllSalesDetails() {
+        return salesDetailsService.getAllSalesDetails();
+    }
+
+    /**
+     * Endpoint to get a SalesDetails record by its ID.
+     *
+     * @param id The ID of the SalesDetails record.
+     * @return Mono of a ResponseEntity containing the SalesDetails record or an error message.
+     */
+    @GetMapping("/getbyid/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getSalesDetailsById(@PathVariable("id") int id) {
+        return salesDetailsService.getSalesDetailsById(id)
+                .map(response -> new ResponseEntity<>(response,
+                        response.containsKey("success") ? HttpStatus.OK : HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint to get SalesDetails records by Sale ID.
+     *
+     * @param saleId The Sale ID associated with the SalesDetails records.
+     * @return Mono of a ResponseEntity containing the list of SalesDetails records or an error message.
+     */
+    @GetMapping(value = "/getbysaleid/{saleId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getSalesDetailsBySaleId(@PathVariable("saleId") int saleId) {
+        return salesDetailsService.getSalesDetailsBySaleId(saleId)
+                .collectList()
+                .map(details -> details.isEmpty()
+                        ? new ResponseEntity<Map<String, Object>>(Map.of("error", "No sales details found for sale ID " + saleId), HttpStatus.NOT_FOUND)
+                        : new ResponseEntity<Map<String, Object>>(Map.of("success", details), HttpStatus.OK))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<Map<String, Object>>(
+                        Map.of("error", "Could not fetch sales details: " + e.getMessage()), HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Endpoint to read the SalesDetails records of a sale as newline-delimited JSON.
+     *
+     * @param saleId The Sale ID associated with the SalesDetails records.
+     * @return Flux emitting one SalesDetailsDTO per line.
+     */
+    @GetMapping(value = "/getbysaleid/{saleId}", produces = NDJSON)
+    public Flux<SalesDetailsDTO> streamSalesDetailsBySaleId(@PathVariable("saleId") int saleId) {
+        return salesDetailsService.getSalesDetailsBySaleId(saleId);
+    }
+
+    /**
+     * Endpoint to update a SalesDetails record by its ID.
+     *
+     * @param id The ID of the SalesDetails record to update.
+     * @param updatedSalesDetails The updated SalesDetails record.
+     * @return Mono of a ResponseEntity containing a success or error message.
+     */
+    @PutMapping("/update/{id}")
+    public Mono<ResponseEntity<Map<String, String>>> updateSalesDetails(@PathVariable("id") int id, @RequestBody SalesDetailsDTO updatedSalesDetails) {
+        return salesDetailsService.updateSalesDetails(id, updatedSalesDetails)
+                .map(response -> new ResponseEntity<>(response,
+                        response.containsKey("success") ? HttpStatus.OK : HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint to delete a SalesDetails record by its ID.
+     *
+     * @param id The ID of the SalesDetails record to delete.
+     * @return Mono of a ResponseEntity containing a success or error message.
+     */
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<Map<String, String>>> deleteSalesDetails(@PathVariable("id") int id) {
+        return salesDetailsService.deleteSalesDetails(id)
+                .map(response -> new ResponseEntity<>(response,
+                        response.containsKey("success") ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND));
+    }
+}
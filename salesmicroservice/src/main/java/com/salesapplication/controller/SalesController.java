@@ -1,42 +1,146 @@
 package com.salesapplication.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.salesapplication.dto.CountMode;
+import com.salesapplication.dto.SalesCount;
 import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesRollupDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.UserSalesSummary;
+import com.salesapplication.repository.SalesRollupRepository;
+import com.salesapplication.service.BulkSalesService;
+import com.salesapplication.service.IdempotencyStore;
+import com.salesapplication.service.OrderIntakeService;
+import com.salesapplication.service.SalesAnalyticsService;
+import com.salesapplication.service.SalesOutcome;
 import com.salesapplication.service.SalesService;
+import com.salesapplication.service.UserSalesSummaryService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller class for managing sales-related endpoints.
  */
 @RestController
 @RequestMapping("/sales")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SalesController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private SalesService salesService;
 
+    @Autowired
+    private BulkSalesService bulkSalesService;
+
+    @Autowired
+    private UserSalesSummaryService userSalesSummaryService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${salesStreamTimeout:10m}")
+    private Duration salesStreamTimeout;
+
     /**
-     * Endpoint to get all sales records.
+     * Endpoint to get all sales records. When a page size is given the records are returned
+     * one keyset page at a time, together with the cursor for the next page.
      * 
-     * @return ResponseEntity containing the list of all sales records or an error message.
+     * @param afterId Optional cursor; only sales with an ID greater than this are returned.
+     * @param size Optional page size; when absent the whole table is returned.
+     * @return ResponseEntity containing the list of sales records or an error message.
      */
     @GetMapping("/getall")
-    public ResponseEntity<Map<String, Object>> getAllSales() {
+    public ResponseEntity<Map<String, Object>> getAllSales(@RequestParam(value = "afterId", defaultValue = "0") int afterId,
+                                                           @RequestParam(value = "size", required = false) Integer size) {
         try {
-            List<SalesDTO> salesList = salesService.getAllSales();
-            return ResponseEntity.ok(Map.of("success", true, "data", salesList));
+            if (size == null) {
+                List<SalesDTO> salesList = salesService.getAllSales();
+                return ResponseEntity.ok(Map.of("success", true, "data", salesList));
+            }
+            List<SalesDTO> page = salesService.getSalesPage(afterId, size);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", true);
+            body.put("data", page);
+            if (!page.isEmpty()) {
+                body.put("nextAfterId", page.get(page.size() - 1).getSaleId());
+            }
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body(Map.of("success", false, "message", "Failed to fetch sales data"));
         }
     }
 
+    /**
+     * Endpoint to stream all sales records as newline-delimited JSON.
+     * Records are written as they come off the database cursor, so memory use does not depend on table size.
+     * The export may run for up to {@code salesStreamTimeout}; other async requests keep the container's timeout.
+     * 
+     * @param response The response the records are written to.
+     * @return WebAsyncTask that writes one SalesDTO per line.
+     */
+    @GetMapping(value = "/getall/stream", produces = NDJSON)
+    public WebAsyncTask<Void> streamAllSales(HttpServletResponse response) {
+        Callable<Void> export = () -> {
+            response.setContentType(NDJSON);
+            try (SequenceWriter writer = objectMapper.writerFor(SalesDTO.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream())) {
+                salesService.streamAllSales(salesDTO -> {
+                    try {
+                        writer.write(salesDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return null;
+        };
+        return new WebAsyncTask<>(salesStreamTimeout.toMillis(), export);
+    }
+
     /**
      * Endpoint to get a sales record by its ID.
      * 
@@ -52,6 +156,7 @@ public class SalesController {
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "Sale record not found"));
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to fetch sale data"));
         }
     }
@@ -72,8 +177,10 @@ public class SalesController {
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "Sale record not found"));
         } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to update sale data"));
         }
     }
@@ -93,6 +200,7 @@ public class SalesController {
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "Sale record not found"));
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to delete sale record"));
         }
     }
@@ -112,20 +220,187 @@ public class SalesController {
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "No sales found for user ID " + userId));
         } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to fetch sales data for user ID " + userId));
         }
     }
 
     /**
-     * Endpoint to add new sales records.
+     * Endpoint to get the purchase summary of a user: number of sales, total spend and last purchase date.
+     * 
+     * @param userId The ID of the user whose summary is to be fetched.
+     * @return ResponseEntity containing the summary or an error message.
+     */
+    @GetMapping("/users/{userId}/summary")
+    public ResponseEntity<Map<String, Object>> getUserSalesSummary(@PathVariable int userId) {
+        try {
+            UserSalesSummary summary = userSalesSummaryService.getSummary(userId);
+            if (summary != null) {
+                return ResponseEntity.ok(Map.of("success", true, "data", summary));
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "No sales found for user ID " + userId));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to fetch sales summary for user ID " + userId));
+        }
+    }
+
+    /**
+     * Endpoint to rebuild the per-user sales summaries from the sales table, for backfill or repair.
+     * 
+     * @param userId Optional ID of a single user to rebuild; when absent every summary is rebuilt.
+     * @return ResponseEntity with the number of summaries rebuilt, or an error message.
+     */
+    @PostMapping("/users/summary/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildUserSalesSummaries(@RequestParam(value = "userId", required = false) Integer userId) {
+        try {
+            int rebuilt = userId == null ? userSalesSummaryService.rebuildAll()
+                    : (userSalesSummaryService.rebuild(userId) != null ? 1 : 0);
+            return ResponseEntity.ok(Map.of("success", true, "message", "Sales summaries rebuilt", "rebuilt", rebuilt));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to rebuild sales summaries"));
+        }
+    }
+
+    /**
+     * Endpoint to search sales by date range, sale total, vehicle and buyer. Results come one keyset page at a
+     * time in (saleDate, saleId) order, together with the cursor for the next page.
+     * 
+     * @param from Optional earliest sale date, inclusive (ISO date-time).
+     * @param to Optional latest sale date, exclusive (ISO date-time).
+     * @param minPrice Optional lowest sale total, inclusive.
+     * @param maxPrice Optional highest sale total, inclusive.
+     * @param vehicleId Optional vehicle the sale must include.
+     * @param userId Optional buyer of the sale.
+     * @param afterDate Optional cursor: the nextAfterDate of the previous page.
+     * @param afterId Optional cursor: the nextAfterId of the previous page; required with afterDate.
+     * @param size The page size.
+     * @param count How to count all matches: none, exact or estimate (bounded by {@code salesSearch.countLimit}).
+     * @return ResponseEntity containing the page of sales records and the optional count, or an error message.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchSales(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                           @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                           @RequestParam(value = "minPrice", required = false) Double minPrice,
+                                                           @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+                                                           @RequestParam(value = "vehicleId", required = false) Integer vehicleId,
+                                                           @RequestParam(value = "userId", required = false) Integer userId,
+                                                           @RequestParam(value = "afterDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+                                                           @RequestParam(value = "afterId", required = false) Integer afterId,
+                                                           @RequestParam(value = "size", defaultValue = "100") int size,
+                                                           @RequestParam(value = "count", defaultValue = "none") String count) {
+        try {
+            if ((afterDate == null) != (afterId == null)) {
+                throw new IllegalArgumentException("afterDate and afterId must be given together");
+            }
+            CountMode countMode = CountMode.of(count);
+            SalesSearchCriteria criteria = new SalesSearchCriteria(from, to, minPrice, maxPrice, vehicleId, userId);
+            List<SalesDTO> page = salesService.searchSales(criteria, afterDate, afterId == null ? 0 : afterId, size);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", true);
+            body.put("data", page);
+            if (!page.isEmpty()) {
+                SalesDTO last = page.get(page.size() - 1);
+                body.put("nextAfterDate", last.getSaleDate().toString());
+                body.put("nextAfterId", last.getSaleId());
+            }
+            // Only the first page pays for the count; the cursor pages reuse it
+            if (countMode != CountMode.NONE && afterDate == null) {
+                SalesCount salesCount = salesService.countSales(criteria, countMode);
+                body.put("count", salesCount.value());
+                body.put("countExact", salesCount.exact());
+            }
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body(Map.of("success", false, "message", "Failed to search sales data"));
+        }
+    }
+
+    /**
+     * Endpoint to get sales aggregated per day, week or month over a date range, in total or broken down
+     * by vehicle or user. Answered from the daily rollups plus a live aggregate of the days not rolled up yet.
+     * 
+     * @param from The first day of the range, inclusive (yyyy-MM-dd).
+     * @param to The last day of the range, inclusive (yyyy-MM-dd).
+     * @param granularity The bucket size: day, week or month.
+     * @param dimension The breakdown within each bucket: all, vehicle or user.
+     * @param id Optional vehicle or user ID to restrict a vehicle or user breakdown to.
+     * @return ResponseEntity containing one entry per bucket and dimension ID, or an error message.
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getSalesAnalytics(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                 @RequestParam(value = "granularity", defaultValue = "day") String granularity,
+                                                                 @RequestParam(value = "dimension", defaultValue = "all") String dimension,
+                                                                 @RequestParam(value = "id", required = false) Integer id) {
+        try {
+            List<SalesRollupDTO> buckets = salesAnalyticsService.getSalesAnalytics(from, to,
+                    SalesAnalyticsService.Granularity.of(granularity), SalesRollupRepository.Dimension.of(dimension), id);
+            return ResponseEntity.ok(Map.of("success", true, "granularity", granularity.toLowerCase(),
+                    "dimension", dimension.toLowerCase(), "data", buckets));
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to fetch sales analytics"));
+        }
+    }
+
+    /**
+     * Endpoint to rewrite the daily rollups of a range of closed days from the sales tables, for backfill or repair.
+     * 
+     * @param from The first day of the range, inclusive (yyyy-MM-dd).
+     * @param to The last day of the range, inclusive (yyyy-MM-dd).
+     * @return ResponseEntity with the number of days rolled up, or an error message.
+     */
+    @PostMapping("/analytics/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSalesAnalytics(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                     @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            int rebuilt = salesAnalyticsService.rebuild(from, to);
+            return ResponseEntity.ok(Map.of("success", true, "message", "Sales rollups rebuilt", "rebuilt", rebuilt));
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("success", false, "message", "Failed to rebuild sales rollups"));
+        }
+    }
+
+    /**
+     * Endpoint to add new sales records. With an {@code Idempotency-Key} header the order is written at most
+     * once per key: retries get the first response back, and concurrent duplicates wait for it.
      * 
-     * @param saleDetails A map containing the details of the sale including user ID and vehicle details.
+     * @param saleDetails The order, including the user ID and vehicle details.
+     * @param idempotencyKey Optional client-chosen key identifying this order across retries.
      * @return ResponseEntity indicating the success or failure of the add operation.
      */
     @PostMapping("/addsales")
-    public ResponseEntity<Map<String, Object>> addSales(@RequestBody Map<String, Object> saleDetails) {
+    public ResponseEntity<Map<String, Object>> addSales(@RequestBody SaleOrderRequest saleDetails,
+                                                        @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return processOrder(saleDetails);
+        }
+        try {
+            return idempotencyStore.execute("/sales/addsales", idempotencyKey, saleDetails,
+                    () -> CompletableFuture.completedFuture(processOrder(saleDetails))).join();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> processOrder(SaleOrderRequest saleDetails) {
         Map<String, Object> response = salesService.addSales(saleDetails);
         boolean success = response.get("status").equals("success");
         
@@ -133,7 +408,8 @@ public class SalesController {
             return ResponseEntity.ok(response);
         } else {
             String errorMessage = (String) response.get("message");
-            if (errorMessage.contains("User with ID") || errorMessage.contains("Insufficient inventory")) {
+            if (errorMessage.startsWith("Invalid input") || errorMessage.contains("User with ID")
+                    || errorMessage.contains("Insufficient inventory")) {
                 return ResponseEntity.badRequest().body(response);
             } else {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -141,4 +417,91 @@ public class SalesController {
         }
     }
 
+    /**
+     * Endpoint to queue a sales order for asynchronous processing. The order is validated and queued, and
+     * its outcome can be polled from {@code /sales/orders/{orderId}}. Honours {@code Idempotency-Key} like
+     * {@code /sales/addsales}, so a retried submission is not queued twice.
+     * 
+     * @param saleDetails The order, including the user ID and vehicle details.
+     * @param idempotencyKey Optional client-chosen key identifying this order across retries.
+     * @return ResponseEntity with status 202 and the order handle, 400 if the order is invalid, or 503 if the queue is full.
+     */
+    @PostMapping("/addsales/async")
+    public ResponseEntity<Map<String, Object>> addSalesAsync(@RequestBody SaleOrderRequest saleDetails,
+                                                             @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return queueOrder(saleDetails);
+        }
+        try {
+            return idempotencyStore.execute("/sales/addsales/async", idempotencyKey, saleDetails,
+                    () -> CompletableFuture.completedFuture(queueOrder(saleDetails))).join();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> queueOrder(SaleOrderRequest saleDetails) {
+        try {
+            OrderIntakeService.OrderStatus status = orderIntakeService.submit(saleDetails);
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Map.of("status", "error", "message", "Order queue is full, retry later"));
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/sales/orders/" + status.orderId()))
+                    .body(Map.of("status", "accepted", "orderId", status.orderId(), "state", status.state()));
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Invalid input: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint to get the state of an order queued through {@code /sales/addsales/async}.
+     * 
+     * @param orderId The handle returned when the order was queued.
+     * @return ResponseEntity containing the order state and outcome message, or 404 if the handle is unknown or expired.
+     */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<Map<String, Object>> getOrderStatus(@PathVariable String orderId) {
+        OrderIntakeService.OrderStatus status = orderIntakeService.getStatus(orderId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", "Order " + orderId + " not found"));
+        }
+        return ResponseEntity.ok(Map.of("success", true, "data", status));
+    }
+
+    /**
+     * Endpoint to add many sales orders sent as a JSON array.
+     * 
+     * @param orders The orders, each with a user ID and vehicle details.
+     * @return ResponseEntity with overall counts and a result per order; 207 if any order failed.
+     */
+    @PostMapping(value = "/addsales/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> addSalesBulk(@RequestBody List<SaleOrderRequest> orders) {
+        return bulkResponse(bulkSalesService.addSalesBulk(orders.iterator()));
+    }
+
+    /**
+     * Endpoint to add many sales orders sent as newline-delimited JSON.
+     * Orders are read and written chunk by chunk, so the request body is never held in memory at once.
+     * 
+     * @param body The request body with one order per line.
+     * @return ResponseEntity with overall counts and a result per order; 207 if any order failed.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(value = "/addsales/bulk", consumes = NDJSON)
+    public ResponseEntity<Map<String, Object>> addSalesBulkStream(InputStream body) throws IOException {
+        try (MappingIterator<SaleOrderRequest> orders = objectMapper.readerFor(SaleOrderRequest.class).readValues(body)) {
+            return bulkResponse(bulkSalesService.addSalesBulk(orders));
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> bulkResponse(Map<String, Object> response) {
+        if (response.get("status").equals("success")) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(response);
+    }
 }
@@ -1,28 +1,46 @@
 package com.salesapplication.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.salesapplication.dto.CountMode;
+import com.salesapplication.dto.SalesCount;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
 import com.salesapplication.model.SalesDetails;
+import com.salesapplication.service.BulkSalesDetailsService;
 import com.salesapplication.service.SalesDetailsService;
+import com.salesapplication.service.SalesOutcome;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller class for managing SalesDetails-related endpoints.
  */
 @RestController
 @RequestMapping("/sales/sales-details")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SalesDetailsController {
 
+    private static final Set<String> EXPANDABLE = Set.of("sale", "vehicle");
+
     private final SalesDetailsService salesDetailsService;
 
+    private final BulkSalesDetailsService bulkSalesDetailsService;
+
     @Autowired
-    public SalesDetailsController(SalesDetailsService salesDetailsService) {
+    public SalesDetailsController(SalesDetailsService salesDetailsService, BulkSalesDetailsService bulkSalesDetailsService) {
         this.salesDetailsService = salesDetailsService;
+        this.bulkSalesDetailsService = bulkSalesDetailsService;
     }
 
     /**
@@ -42,13 +60,18 @@ public class SalesDetailsController {
     }
 
     /**
-     * Endpoint to get all SalesDetails records.
+     * Endpoint to get all SalesDetails records. The whole table is returned; {@code /search} without filters
+     * returns the same rows one keyset page at a time.
      * 
+     * @param expand Optional comma-separated nested objects to include: sale, vehicle.
      * @return ResponseEntity containing the list of all SalesDetails records or an error message.
      */
     @GetMapping("/getall")
-    public ResponseEntity<Map<String, Object>> getAllSalesDetails() {
-        Map<String, Object> response = salesDetailsService.getAllSalesDetails();
+    public ResponseEntity<Map<String, Object>> getAllSalesDetails(@RequestParam(value = "expand", required = false) String expand) {
+        if (!isValidExpand(expand)) {
+            return invalidExpand(expand);
+        }
+        Map<String, Object> response = salesDetailsService.getAllSalesDetails(expand != null);
         if (response.containsKey("success")) {
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -60,11 +83,16 @@ public class SalesDetailsController {
      * Endpoint to get a SalesDetails record by its ID.
      * 
      * @param id The ID of the SalesDetails record.
+     * @param expand Optional comma-separated nested objects to include: sale, vehicle.
      * @return ResponseEntity containing the SalesDetails record or an error message.
      */
     @GetMapping("/getbyid/{id}")
-    public ResponseEntity<Map<String, Object>> getSalesDetailsById(@PathVariable("id") int id) {
-        Map<String, Object> response = salesDetailsService.getSalesDetailsById(id);
+    public ResponseEntity<Map<String, Object>> getSalesDetailsById(@PathVariable("id") int id,
+                                                                   @RequestParam(value = "expand", required = false) String expand) {
+        if (!isValidExpand(expand)) {
+            return invalidExpand(expand);
+        }
+        Map<String, Object> response = salesDetailsService.getSalesDetailsById(id, expand != null);
         if (response.containsKey("success")) {
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -76,11 +104,16 @@ public class SalesDetailsController {
      * Endpoint to get SalesDetails records by Sale ID.
      * 
      * @param saleId The Sale ID associated with the SalesDetails records.
+     * @param expand Optional comma-separated nested objects to include: sale, vehicle.
      * @return ResponseEntity containing the list of SalesDetails records or an error message.
      */
     @GetMapping("/getbysaleid/{saleId}")
-    public ResponseEntity<Map<String, Object>> getSalesDetailsBySaleId(@PathVariable("saleId") int saleId) {
-        Map<String, Object> response = salesDetailsService.getSalesDetailsBySaleId(saleId);
+    public ResponseEntity<Map<String, Object>> getSalesDetailsBySaleId(@PathVariable("saleId") int saleId,
+                                                                       @RequestParam(value = "expand", required = false) String expand) {
+        if (!isValidExpand(expand)) {
+            return invalidExpand(expand);
+        }
+        Map<String, Object> response = salesDetailsService.getSalesDetailsBySaleId(saleId, expand != null);
         if (response.containsKey("success")) {
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -88,6 +121,67 @@ public class SalesDetailsController {
         }
     }
 
+    /**
+     * Endpoint to search SalesDetails records by the date range, total and buyer of their sale and by vehicle.
+     * Results come one keyset page at a time in (saleId, saleDetailId) order, together with the cursor for the
+     * next page.
+     * 
+     * @param from Optional earliest sale date, inclusive (ISO date-time).
+     * @param to Optional latest sale date, exclusive (ISO date-time).
+     * @param minPrice Optional lowest sale total, inclusive.
+     * @param maxPrice Optional highest sale total, inclusive.
+     * @param vehicleId Optional vehicle of the record.
+     * @param userId Optional buyer of the sale.
+     * @param afterSaleId Optional cursor: the nextAfterSaleId of the previous page.
+     * @param afterId Optional cursor: the nextAfterId of the previous page; required with afterSaleId.
+     * @param size The page size.
+     * @param count How to count all matches: none, exact or estimate (bounded by {@code salesSearch.countLimit}).
+     * @return ResponseEntity containing the page of SalesDetails records and the optional count, or an error message.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchSalesDetails(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                  @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                  @RequestParam(value = "minPrice", required = false) Double minPrice,
+                                                                  @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+                                                                  @RequestParam(value = "vehicleId", required = false) Integer vehicleId,
+                                                                  @RequestParam(value = "userId", required = false) Integer userId,
+                                                                  @RequestParam(value = "afterSaleId", required = false) Integer afterSaleId,
+                                                                  @RequestParam(value = "afterId", required = false) Integer afterId,
+                                                                  @RequestParam(value = "size", defaultValue = "100") int size,
+                                                                  @RequestParam(value = "count", defaultValue = "none") String count) {
+        try {
+            if ((afterSaleId == null) != (afterId == null)) {
+                throw new IllegalArgumentException("afterSaleId and afterId must be given together");
+            }
+            CountMode countMode = CountMode.of(count);
+            SalesSearchCriteria criteria = new SalesSearchCriteria(from, to, minPrice, maxPrice, vehicleId, userId);
+            List<SalesDetailsDTO> page = salesDetailsService.searchSalesDetails(criteria,
+                    afterSaleId == null ? 0 : afterSaleId, afterId == null ? 0 : afterId, size);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", true);
+            body.put("data", page);
+            if (!page.isEmpty()) {
+                SalesDetailsDTO last = page.get(page.size() - 1);
+                body.put("nextAfterSaleId", last.getSaleId());
+                body.put("nextAfterId", last.getSaleDetailId());
+            }
+            // Only the first page pays for the count; the cursor pages reuse it
+            if (countMode != CountMode.NONE && afterSaleId == null) {
+                SalesCount detailsCount = salesDetailsService.countSalesDetails(criteria, countMode);
+                body.put("count", detailsCount.value());
+                body.put("countExact", detailsCount.exact());
+            }
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            SalesOutcome.of(e).record();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body(Map.of("success", false, "message", "Failed to search sales details"));
+        }
+    }
+
     /**
      * Endpoint to update a SalesDetails record by its ID.
      * 
@@ -120,4 +214,57 @@ public class SalesDetailsController {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
+
+    /**
+     * Endpoint to create many SalesDetails records in JDBC batches.
+     * 
+     * @param rows The records to create, as flat rows with saleId and vehicleId.
+     * @return ResponseEntity with overall counts and a result per row including the new ID; 207 if any row failed.
+     */
+    @PostMapping("/add/bulk")
+    public ResponseEntity<Map<String, Object>> createSalesDetailsBulk(@RequestBody List<SalesDetailsDTO> rows) {
+        return bulkResponse(bulkSalesDetailsService.createSalesDetailsBulk(rows));
+    }
+
+    /**
+     * Endpoint to update many SalesDetails records, matched by saleDetailId, in JDBC batches.
+     * 
+     * @param rows The new values of the records.
+     * @return ResponseEntity with overall counts and a result per row; 207 if any row failed.
+     */
+    @PutMapping("/update/bulk")
+    public ResponseEntity<Map<String, Object>> updateSalesDetailsBulk(@RequestBody List<SalesDetailsDTO> rows) {
+        return bulkResponse(bulkSalesDetailsService.updateSalesDetailsBulk(rows));
+    }
+
+    /**
+     * Endpoint to delete many SalesDetails records by ID in JDBC batches. A POST, because request bodies
+     * on DELETE are dropped by some clients and proxies.
+     * 
+     * @param ids The IDs of the records to delete.
+     * @return ResponseEntity with overall counts and a result per ID; 207 if any row failed.
+     */
+    @PostMapping("/delete/bulk")
+    public ResponseEntity<Map<String, Object>> deleteSalesDetailsBulk(@RequestBody List<Integer> ids) {
+        return bulkResponse(bulkSalesDetailsService.deleteSalesDetailsBulk(ids));
+    }
+
+    // Reads return flat rows with saleId and vehicleId unless the caller asks for the nested objects
+    private static boolean isValidExpand(String expand) {
+        return expand == null || Arrays.stream(expand.split(","))
+                .map(String::trim)
+                .allMatch(EXPANDABLE::contains);
+    }
+
+    private static ResponseEntity<Map<String, Object>> invalidExpand(String expand) {
+        return new ResponseEntity<>(Map.<String, Object>of("error", "Invalid expand: " + expand + "; supported values are sale and vehicle"),
+                HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<Map<String, Object>> bulkResponse(Map<String, Object> response) {
+        if (response.get("status").equals("success")) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(response);
+    }
 }
@@ -0,0 +1,29 @@
+package com.salesapplication.dto;
+
+/**
+ * How a sales or sales details search counts its matches.
+ */
+public enum CountMode {
+    /** No count. */
+    NONE,
+    /** Exact count with COUNT(*), which reads every match. */
+    EXACT,
+    /** Exact up to {@code salesSearch.countLimit} matches, extrapolated from their sale dates beyond that. */
+    ESTIMATE;
+
+    /**
+     * Parses a count mode as accepted by the search endpoint.
+     *
+     * @param value "none", "exact" or "estimate", in any case.
+     * @return The matching count mode.
+     * @throws IllegalArgumentException If the value is not a known count mode.
+     */
+    public static CountMode of(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown count mode: " + value);
+    }
+}
@@ -0,0 +1,37 @@
+package com.salesapplication.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The number of sales or sales details matching a search.
+ *
+ * @param value The count.
+ * @param exact Whether the count is exact rather than estimated.
+ */
+public record SalesCount(long value, boolean exact) {
+
+    /**
+     * Counts the matches of a search from the sale dates of its first matches, as read in index order.
+     * If no more than {@code limit} match, the count is exact. Otherwise the rate of matches over the dates
+     * read is extrapolated to the rest of the date range, which ends at {@code to} or now.
+     *
+     * @param criteria The filters of the search.
+     * @param dates The sale dates of at most {@code limit} + 1 matches, in ascending order.
+     * @param limit The number of matches counted exactly.
+     * @return The count, and whether it is exact.
+     */
+    public static SalesCount fromSaleDates(SalesSearchCriteria criteria, List<LocalDateTime> dates, int limit) {
+        if (dates.size() <= limit) {
+            return new SalesCount(dates.size(), true);
+        }
+        LocalDateTime start = criteria.getFrom() != null ? criteria.getFrom() : dates.get(0);
+        LocalDateTime end = criteria.getTo() != null ? criteria.getTo() : LocalDateTime.now();
+        long sampledMillis = Duration.between(start, dates.get(limit)).toMillis();
+        long rangeMillis = Duration.between(start, end).toMillis();
+        long estimate = sampledMillis > 0 ? Math.round((double) limit * rangeMillis / sampledMillis) : 0;
+        // Never below what has already been seen
+        return new SalesCount(Math.max(estimate, limit + 1L), false);
+    }
+}
@@ -0,0 +1,80 @@
+package com.salesapplication.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public class SalesRollupDTO {
+
+    // First day of the bucket
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate bucket;
+    private int dimensionId;
+    private long saleCount;
+    private double units;
+    private double revenue;
+
+    // Constructors
+    public SalesRollupDTO() {
+    }
+
+    public SalesRollupDTO(LocalDate bucket, int dimensionId, long saleCount, double units, double revenue) {
+        this.bucket = bucket;
+        this.dimensionId = dimensionId;
+        this.saleCount = saleCount;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    // Getters and Setters
+    public LocalDate getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(LocalDate bucket) {
+        this.bucket = bucket;
+    }
+
+    public int getDimensionId() {
+        return dimensionId;
+    }
+
+    public void setDimensionId(int dimensionId) {
+        this.dimensionId = dimensionId;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public double getUnits() {
+        return units;
+    }
+
+    public void setUnits(double units) {
+        this.units = units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "SalesRollupDTO{" +
+                "bucket=" + bucket +
+                ", dimensionId=" + dimensionId +
+                ", saleCount=" + saleCount +
+                ", units=" + units +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
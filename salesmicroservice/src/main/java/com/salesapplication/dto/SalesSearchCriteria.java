@@ -0,0 +1,99 @@
+package com.salesapplication.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of a sales search. Every filter is optional; unset filters match all sales.
+ */
+public class SalesSearchCriteria {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer vehicleId;
+    private Integer userId;
+
+    public SalesSearchCriteria() {
+    }
+
+    public SalesSearchCriteria(LocalDateTime from, LocalDateTime to, Double minPrice, Double maxPrice,
+                               Integer vehicleId, Integer userId) {
+        this.from = from;
+        this.to = to;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.vehicleId = vehicleId;
+        this.userId = userId;
+    }
+
+    /**
+     * Checks that the ranges are not inverted.
+     *
+     * @throws IllegalArgumentException If from is not before to, or minPrice is greater than maxPrice.
+     */
+    public void validate() {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+    }
+
+    // Getters and setters
+
+    /** @return The earliest sale date, inclusive; null for no lower bound. */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    /** @return The latest sale date, exclusive; null for no upper bound. */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    /** @return The lowest sale total, inclusive. */
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    /** @return The highest sale total, inclusive. */
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    /** @return The vehicle at least one detail line of the sale must be for. */
+    public Integer getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Integer vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    /** @return The buyer of the sale. */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+}
@@ -1,73 +1,70 @@
-//package com.salesapplication.dto;
-//
-//public class VehicleDTO {
-//
-//    private int vehicleId;
-//    private String model;
-//    private String registrationNumber;
-//    private double price;
-//    private String status;
-//    private int availableCount;
-//    private int brandId; // Assuming you transfer brandId instead of the full Brand entity
-//
-//    // Getters and Setters
-//
-//    public int getVehicleId() {
-//        return vehicleId;
-//    }
-//
-//    public void setVehicleId(int vehicleId) {
-//        this.vehicleId = vehicleId;
-//    }
-//
-//    public String getModel() {
-//        return model;
-//    }
-//
-//    public void setModel(String model) {
-//        this.model = model;
-//    }
-//
-//    public String getRegistrationNumber() {
-//        return registrationNumber;
-//    }
-//
-//    public void setRegistrationNumber(String registrationNumber) {
-//        this.registrationNumber = registrationNumber;
-//    }
-//
-//    public double getPrice() {
-//        return price;
-//    }
-//
-//    public void setPrice(double price) {
-//        this.price = price;
-//    }
-//
-//    public String getStatus() {
-//        return status;
-//    }
-//
-//    public void setStatus(String status) {
-//        this.status = status;
-//    }
-//
-//    public int getAvailableCount() {
-//        return availableCount;
-//    }
-//
-//    public void setAvailableCount(int availableCount) {
-//        this.availableCount = availableCount;
-//    }
-//
-//    public int getBrandId() {
-//        return brandId;
-//    }
-//
-//    public void setBrandId(int brandId) {
-//        this.brandId = brandId;
-//    }
-//}
 package com.salesapplication.dto;
 
+public class VehicleDTO {
 
+    private int vehicleId;
+    private String model;
+    private String registrationNumber;
+    private double price;
+    private String status;
+    private int availableCount;
+    private int brandId; // Assuming you transfer brandId instead of the full Brand entity
+
+    // Getters and Setters
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(int vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getRegistrationNumber() {
+        return registrationNumber;
+    }
+
+    public void setRegistrationNumber(String registrationNumber) {
+        this.registrationNumber = registrationNumber;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAvailableCount() {
+        return availableCount;
+    }
+
+    public void setAvailableCount(int availableCount) {
+        this.availableCount = availableCount;
+    }
+
+    public int getBrandId() {
+        return brandId;
+    }
+
+    public void setBrandId(int brandId) {
+        this.brandId = brandId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.salesapplication.exception;
+
+/**
+ * Thrown when an order asks for more vehicles than are in stock.
+ */
+public class InsufficientInventoryException extends RuntimeException {
+
+    private final Integer vehicleId;
+
+    /**
+     * Constructor for InsufficientInventoryException.
+     *
+     * @param message The error message reported by the stored procedure.
+     */
+    public InsufficientInventoryException(String message) {
+        super(message);
+        this.vehicleId = null;
+    }
+
+    /**
+     * Constructor for InsufficientInventoryException.
+     *
+     * @param vehicleId The ID of the vehicle that is short.
+     */
+    public InsufficientInventoryException(int vehicleId) {
+        super("Insufficient inventory for vehicle ID " + vehicleId);
+        this.vehicleId = vehicleId;
+    }
+
+    /**
+     * @return The ID of the vehicle that is short, or null when only the procedure's message is known.
+     */
+    public Integer getVehicleId() {
+        return vehicleId;
+    }
+}
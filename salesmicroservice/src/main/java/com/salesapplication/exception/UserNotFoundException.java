@@ -0,0 +1,24 @@
+package com.salesapplication.exception;
+
+/**
+ * Thrown when the user service does not know the buyer of an order.
+ * Extends IllegalArgumentException so existing "Invalid input" handling keeps applying.
+ */
+public class UserNotFoundException extends IllegalArgumentException {
+
+    private final int userId;
+
+    /**
+     * Constructor for UserNotFoundException.
+     *
+     * @param userId The ID of the user that was not found.
+     */
+    public UserNotFoundException(int userId) {
+        super("User with ID " + userId + " not found");
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.salesapplication.exception;
+
+/**
+ * Thrown when the user service could not be asked about a user: it was unreachable, timed out,
+ * answered with an error, or the local bulkhead rejected the call.
+ */
+public class UserServiceException extends RuntimeException {
+
+    /**
+     * Constructor for UserServiceException.
+     *
+     * @param message The error message.
+     * @param cause The failure reported by the HTTP client or the bulkhead.
+     */
+    public UserServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
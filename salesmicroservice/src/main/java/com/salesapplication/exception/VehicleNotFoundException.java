@@ -0,0 +1,24 @@
+package com.salesapplication.exception;
+
+/**
+ * Thrown when an order names a vehicle that does not exist.
+ * Extends IllegalArgumentException so existing "Invalid input" handling keeps applying.
+ */
+public class VehicleNotFoundException extends IllegalArgumentException {
+
+    private final int vehicleId;
+
+    /**
+     * Constructor for VehicleNotFoundException.
+     *
+     * @param vehicleId The ID of the vehicle that was not found.
+     */
+    public VehicleNotFoundException(int vehicleId) {
+        super("Vehicle with ID " + vehicleId + " not found");
+        this.vehicleId = vehicleId;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+}
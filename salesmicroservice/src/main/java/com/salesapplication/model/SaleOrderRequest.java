@@ -0,0 +1,47 @@
+package com.salesapplication.model;
+
+import java.util.List;
+
+public class SaleOrderRequest {
+    private Integer userId;
+    private List<VehiclePurchaseRequest> vehicles;
+
+    // Getters and setters
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public List<VehiclePurchaseRequest> getVehicles() {
+        return vehicles;
+    }
+
+    public void setVehicles(List<VehiclePurchaseRequest> vehicles) {
+        this.vehicles = vehicles;
+    }
+
+    /**
+     * Checks the order before any remote call or database work is done.
+     *
+     * @throws IllegalArgumentException If the user ID or any vehicle line is missing or not positive.
+     */
+    public void validate() {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("userId must be a positive number");
+        }
+        if (vehicles == null || vehicles.isEmpty()) {
+            throw new IllegalArgumentException("vehicles must contain at least one vehicle");
+        }
+        for (VehiclePurchaseRequest vehicle : vehicles) {
+            if (vehicle == null || vehicle.getVehicleId() <= 0) {
+                throw new IllegalArgumentException("vehicleId must be a positive number");
+            }
+            if (vehicle.getCount() <= 0) {
+                throw new IllegalArgumentException("count must be a positive number for vehicle " + vehicle.getVehicleId());
+            }
+        }
+    }
+}
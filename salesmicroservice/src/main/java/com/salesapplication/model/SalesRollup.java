@@ -0,0 +1,125 @@
+package com.salesapplication.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One closed day of pre-aggregated sales, either in total or for one vehicle or one user.
+ * Rows are written and read with SQL by SalesRollupRepository; the mapping defines the table.
+ */
+@Entity
+@Table(name = "sales_rollup")
+@IdClass(SalesRollup.Key.class)
+public class SalesRollup {
+
+    @Id
+    @Column(name = "bucket_date")
+    private LocalDate bucketDate;
+
+    // "all", "vehicle" or "user"
+    @Id
+    @Column(name = "dimension", length = 8)
+    private String dimension;
+
+    // Vehicle or user ID; 0 for the "all" dimension
+    @Id
+    @Column(name = "dimension_id")
+    private int dimensionId;
+
+    @Column(name = "sale_count", nullable = false)
+    private long saleCount;
+
+    @Column(name = "units", nullable = false)
+    private double units;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    // Getters and setters
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public int getDimensionId() {
+        return dimensionId;
+    }
+
+    public void setDimensionId(int dimensionId) {
+        this.dimensionId = dimensionId;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public double getUnits() {
+        return units;
+    }
+
+    public void setUnits(double units) {
+        this.units = units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    /**
+     * Composite primary key of a rollup row.
+     */
+    public static class Key implements Serializable {
+
+        private LocalDate bucketDate;
+        private String dimension;
+        private int dimensionId;
+
+        public Key() {
+        }
+
+        public Key(LocalDate bucketDate, String dimension, int dimensionId) {
+            this.bucketDate = bucketDate;
+            this.dimension = dimension;
+            this.dimensionId = dimensionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return dimensionId == key.dimensionId && Objects.equals(bucketDate, key.bucketDate)
+                    && Objects.equals(dimension, key.dimension);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketDate, dimension, dimensionId);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.salesapplication.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user aggregate of the {@code sales} table, kept up to date by every write to it
+ * so purchase-history totals can be read with a single primary key lookup.
+ */
+@Entity
+@Table(name = "user_sales_summary")
+public class UserSalesSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(name = "sale_count", nullable = false)
+    private long saleCount;
+
+    @Column(name = "total_spend", nullable = false)
+    private double totalSpend;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Column(name = "last_purchase_at")
+    private LocalDateTime lastPurchaseAt;
+
+    // Getters and setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(long saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public double getTotalSpend() {
+        return totalSpend;
+    }
+
+    public void setTotalSpend(double totalSpend) {
+        this.totalSpend = totalSpend;
+    }
+
+    public LocalDateTime getLastPurchaseAt() {
+        return lastPurchaseAt;
+    }
+
+    public void setLastPurchaseAt(LocalDateTime lastPurchaseAt) {
+        this.lastPurchaseAt = lastPurchaseAt;
+    }
+}
@@ -0,0 +1,85 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the {@code sales_details} table for the reactive engine.
+ * Rows are mapped straight into SalesDetailsDTO and every Flux honours downstream demand.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesDetailsRepository {
+
+    private static final String SELECT_DETAILS =
+            "SELECT sale_detail_id, sale_id, vehicle_id, price, vehicle_count FROM sales_details ";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveSalesDetailsRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<SalesDetailsDTO> findAll() {
+        return databaseClient.sql(SELECT_DETAILS + "ORDER BY sale_detail_id")
+                .map(ReactiveSalesDetailsRepository::toDTO)
+                .all();
+    }
+
+    public Mono<SalesDetailsDTO> findById(int saleDetailId) {
+        return databaseClient.sql(SELECT_DETAILS + "WHERE sale_detail_id = :saleDetailId")
+                .bind("saleDetailId", saleDetailId)
+                .map(ReactiveSalesDetailsRepository::toDTO)
+                .one();
+    }
+
+    public Flux<SalesDetailsDTO> findBySaleId(int saleId) {
+        return databaseClient.sql(SELECT_DETAILS + "WHERE sale_id = :saleId ORDER BY sale_detail_id")
+                .bind("saleId", saleId)
+                .map(ReactiveSalesDetailsRepository::toDTO)
+                .all();
+    }
+
+    public Mono<Integer> insert(SalesDetailsDTO salesDetails) {
+        return databaseClient.sql("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) "
+                        + "VALUES (:saleId, :vehicleId, :price, :vehicleCount)")
+                .bind("saleId", salesDetails.getSaleId())
+                .bind("vehicleId", salesDetails.getVehicleId())
+                .bind("price", salesDetails.getPrice())
+                .bind("vehicleCount", salesDetails.getVehicleCount())
+                .filter(statement -> statement.returnGeneratedValues("sale_detail_id"))
+                .map(row -> row.get("sale_detail_id", Integer.class))
+                .one();
+    }
+
+    public Mono<Long> update(int saleDetailId, SalesDetailsDTO salesDetails) {
+        return databaseClient.sql("UPDATE sales_details SET sale_id = :saleId, vehicle_id = :vehicleId, "
+                        + "price = :price, vehicle_count = :vehicleCount WHERE sale_detail_id = :saleDetailId")
+                .bind("saleId", salesDetails.getSaleId())
+                .bind("vehicleId", salesDetails.getVehicleId())
+                .bind("price", salesDetails.getPrice())
+                .bind("vehicleCount", salesDetails.getVehicleCount())
+                .bind("saleDetailId", saleDetailId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(int saleDetailId) {
+        return databaseClient.sql("DELETE FROM sales_details WHERE sale_detail_id = :saleDetailId")
+                .bind("saleDetailId", saleDetailId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static SalesDetailsDTO toDTO(Readable row) {
+        return new SalesDetailsDTO(row.get("sale_detail_id", Integer.class), row.get("sale_id", Integer.class),
+                row.get("vehicle_id", Integer.class), row.get("price", Double.class), row.get("vehicle_count", Double.class));
+    }
+}
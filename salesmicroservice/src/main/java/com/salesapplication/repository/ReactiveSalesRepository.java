@@ -0,0 +1,91 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking access to the {@code sales} table for the reactive engine.
+ * Rows are mapped straight into SalesDTO and every Flux honours downstream demand.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesRepository {
+
+    private static final String SELECT_SALES = "SELECT sale_id, total_amount, user_id, sale_date FROM sales ";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveSalesRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<SalesDTO> findAll() {
+        return databaseClient.sql(SELECT_SALES + "ORDER BY sale_id")
+                .map(ReactiveSalesRepository::toDTO)
+                .all();
+    }
+
+    public Flux<SalesDTO> findPageAfter(int afterId, int size) {
+        return databaseClient.sql(SELECT_SALES + "WHERE sale_id > :afterId ORDER BY sale_id LIMIT :size")
+                .bind("afterId", afterId)
+                .bind("size", size)
+                .map(ReactiveSalesRepository::toDTO)
+                .all();
+    }
+
+    public Mono<SalesDTO> findById(int saleId) {
+        return databaseClient.sql(SELECT_SALES + "WHERE sale_id = :saleId")
+                .bind("saleId", saleId)
+                .map(ReactiveSalesRepository::toDTO)
+                .one();
+    }
+
+    public Flux<SalesDTO> findByUserId(int userId) {
+        return databaseClient.sql(SELECT_SALES + "WHERE user_id = :userId ORDER BY sale_id")
+                .bind("userId", userId)
+                .map(ReactiveSalesRepository::toDTO)
+                .all();
+    }
+
+    public Mono<Long> updateSalePrice(int saleId, double salePrice) {
+        return databaseClient.sql("UPDATE sales SET total_amount = :salePrice WHERE sale_id = :saleId")
+                .bind("salePrice", salePrice)
+                .bind("saleId", saleId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(int saleId) {
+        return databaseClient.sql("DELETE FROM sales WHERE sale_id = :saleId")
+                .bind("saleId", saleId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Same stored procedure as SalesRepository.insertSaleRecords; emits its status and the new sale's ID
+    public Mono<SaleRecordsResult> insertSaleRecords(int userId, String vehicleDataJson) {
+        return databaseClient.sql("CALL insert_sale_records(:userId, :vehicleDataJson, @error_message)")
+                .bind("userId", userId)
+                .bind("vehicleDataJson", vehicleDataJson)
+                .map(row -> new SaleRecordsResult(row.get("errorMessage", String.class), row.get("saleId", Integer.class)))
+                .first();
+    }
+
+    // The row insert_sale_records answers with, as in SalesRepository.SaleRecordsResult
+    public record SaleRecordsResult(String errorMessage, Integer saleId) {
+    }
+
+    private static SalesDTO toDTO(Readable row) {
+        return new SalesDTO(row.get("sale_id", Integer.class), row.get("total_amount", Double.class),
+                row.get("user_id", Integer.class), row.get("sale_date", LocalDateTime.class));
+    }
+}
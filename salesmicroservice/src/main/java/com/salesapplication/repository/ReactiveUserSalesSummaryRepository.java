@@ -0,0 +1,74 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.model.UserSalesSummary;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking access to {@code user_sales_summary} for the reactive engine.
+ * Uses the same single-statement deltas as {@link UserSalesSummaryRepository}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserSalesSummaryRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveUserSalesSummaryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<UserSalesSummary> findById(int userId) {
+        return databaseClient.sql("SELECT user_id, sale_count, total_spend, last_purchase_at FROM user_sales_summary WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveUserSalesSummaryRepository::toSummary)
+                .one();
+    }
+
+    public Mono<Long> addSale(int userId, double amount, LocalDateTime saleDate) {
+        return databaseClient.sql("INSERT INTO user_sales_summary (user_id, sale_count, total_spend, last_purchase_at) "
+                        + "VALUES (:userId, 1, :amount, :saleDate) "
+                        + "ON DUPLICATE KEY UPDATE sale_count = sale_count + 1, total_spend = total_spend + :amount, "
+                        + "last_purchase_at = GREATEST(COALESCE(last_purchase_at, :saleDate), :saleDate)")
+                .bind("userId", userId)
+                .bind("amount", amount)
+                .bind("saleDate", saleDate)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> adjustTotalSpend(int userId, double delta) {
+        return databaseClient.sql("UPDATE user_sales_summary SET total_spend = total_spend + :delta WHERE user_id = :userId")
+                .bind("delta", delta)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Must run after the sale row is deleted, so the latest purchase date no longer sees it
+    public Mono<Long> removeSale(int userId, double amount) {
+        return databaseClient.sql("UPDATE user_sales_summary SET sale_count = sale_count - 1, total_spend = total_spend - :amount, "
+                        + "last_purchase_at = (SELECT MAX(s.sale_date) FROM sales s WHERE s.user_id = :userId) "
+                        + "WHERE user_id = :userId")
+                .bind("amount", amount)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static UserSalesSummary toSummary(Readable row) {
+        UserSalesSummary summary = new UserSalesSummary();
+        summary.setUserId(row.get("user_id", Integer.class));
+        summary.setSaleCount(row.get("sale_count", Long.class));
+        summary.setTotalSpend(row.get("total_spend", Double.class));
+        summary.setLastPurchaseAt(row.get("last_purchase_at", LocalDateTime.class));
+        return summary;
+    }
+}
@@ -0,0 +1,51 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC-batched writes of sales details, mixed into {@link SalesDetailsRepository}.
+ * Each method sends its rows as one batch, so a chunk of rows costs one round trip instead of one per row.
+ */
+public interface SalesDetailsBatchRepository {
+
+    /**
+     * Inserts the rows as one batch.
+     *
+     * @param rows The rows to insert; their saleDetailId is ignored.
+     * @return The generated sale detail IDs, in row order.
+     */
+    List<Integer> insertBatch(List<SalesDetailsDTO> rows);
+
+    /**
+     * Updates the rows, matched by saleDetailId, as one batch.
+     *
+     * @param rows The new values of the rows.
+     * @return The number of rows updated per input row; 0 where the ID does not exist.
+     */
+    int[] updateBatch(List<SalesDetailsDTO> rows);
+
+    /**
+     * Deletes the rows with the given IDs as one batch.
+     *
+     * @param saleDetailIds The IDs of the rows to delete.
+     * @return The number of rows deleted per ID; 0 where the ID does not exist.
+     */
+    int[] deleteBatch(List<Integer> saleDetailIds);
+
+    /**
+     * @param saleDetailIds The IDs of the detail rows to look up.
+     * @return The sale ID of each detail row that exists, by detail ID.
+     */
+    Map<Integer, Integer> findSaleIdsByDetailIds(Collection<Integer> saleDetailIds);
+
+    /**
+     * @param saleIds The sale IDs to look up.
+     * @return Those of the given sale IDs that exist.
+     */
+    Set<Integer> findExistingSaleIds(Collection<Integer> saleIds);
+}
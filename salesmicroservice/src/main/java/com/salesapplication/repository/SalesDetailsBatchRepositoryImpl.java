@@ -0,0 +1,129 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link SalesDetailsBatchRepository} on JdbcTemplate batches. The rows keep their IDENTITY keys: MySQL
+ * returns the generated keys of a batched insert, so no other ID strategy is needed to batch.
+ */
+public class SalesDetailsBatchRepositoryImpl implements SalesDetailsBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public SalesDetailsBatchRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> insertBatch(List<SalesDetailsDTO> rows) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new RowSetter(rows) {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setColumns(ps, rows.get(i));
+                    }
+                },
+                keyHolder);
+        // The generated key column is named differently per driver, so read the single value of each row
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toList();
+    }
+
+    @Override
+    public int[] updateBatch(List<SalesDetailsDTO> rows) {
+        return jdbcTemplate.batchUpdate(
+                "UPDATE sales_details SET sale_id = ?, vehicle_id = ?, price = ?, vehicle_count = ? WHERE sale_detail_id = ?",
+                new RowSetter(rows) {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setColumns(ps, rows.get(i));
+                        ps.setInt(5, rows.get(i).getSaleDetailId());
+                    }
+                });
+    }
+
+    @Override
+    public int[] deleteBatch(List<Integer> saleDetailIds) {
+        return jdbcTemplate.batchUpdate("DELETE FROM sales_details WHERE sale_detail_id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, saleDetailIds.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return saleDetailIds.size();
+                    }
+                });
+    }
+
+    @Override
+    public Map<Integer, Integer> findSaleIdsByDetailIds(Collection<Integer> saleDetailIds) {
+        Map<Integer, Integer> saleIds = new HashMap<>();
+        if (saleDetailIds.isEmpty()) {
+            return saleIds;
+        }
+        namedJdbcTemplate.query("SELECT sale_detail_id, sale_id FROM sales_details WHERE sale_detail_id IN (:ids)",
+                new MapSqlParameterSource("ids", saleDetailIds),
+                rs -> {
+                    saleIds.put(rs.getInt("sale_detail_id"), rs.getInt("sale_id"));
+                });
+        return saleIds;
+    }
+
+    @Override
+    public Set<Integer> findExistingSaleIds(Collection<Integer> saleIds) {
+        if (saleIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList("SELECT sale_id FROM sales WHERE sale_id IN (:ids)",
+                new MapSqlParameterSource("ids", saleIds), Integer.class));
+    }
+
+    private abstract static class RowSetter implements BatchPreparedStatementSetter {
+
+        private final List<SalesDetailsDTO> rows;
+
+        RowSetter(List<SalesDetailsDTO> rows) {
+            this.rows = rows;
+        }
+
+        static void setColumns(PreparedStatement ps, SalesDetailsDTO row) throws SQLException {
+            ps.setInt(1, row.getSaleId());
+            ps.setInt(2, row.getVehicleId());
+            ps.setDouble(3, row.getPrice());
+            ps.setDouble(4, row.getVehicleCount());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return rows.size();
+        }
+    }
+}
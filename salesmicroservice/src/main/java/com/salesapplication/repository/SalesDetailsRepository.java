@@ -1,16 +1,45 @@
 package com.salesapplication.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
 
+import com.salesapplication.dto.SalesDetailsDTO;
 import com.salesapplication.model.SalesDetails;
 
-public interface SalesDetailsRepository extends JpaRepository<SalesDetails, Integer> {
+public interface SalesDetailsRepository extends JpaRepository<SalesDetails, Integer>, SalesDetailsBatchRepository,
+        SalesDetailsSearchRepository {
     
     @Procedure(name = "insert_sales_detail")
 	void insert_sales_details(int saleId, int vehicleId, int count);
     
+    // Expanded reads: the sale and vehicle come in the same query rather than one select per row
+    @EntityGraph(attributePaths = {"sale", "vehicle"})
     List<SalesDetails> findBySale_SaleId(int saleId);
+
+    @EntityGraph(attributePaths = {"sale", "vehicle"})
+    @Query("SELECT d FROM SalesDetails d ORDER BY d.saleDetailId")
+    List<SalesDetails> findAllExpanded();
+
+    @EntityGraph(attributePaths = {"sale", "vehicle"})
+    @Query("SELECT d FROM SalesDetails d WHERE d.saleDetailId = :id")
+    Optional<SalesDetails> findExpandedById(@Param("id") int id);
+
+    // Flat reads: only the detail row's own columns, so neither the sale nor the vehicle is joined
+    @Query("SELECT new com.salesapplication.dto.SalesDetailsDTO(d.saleDetailId, d.sale.saleId, d.vehicle.vehicleId, d.price, d.vehicleCount) "
+            + "FROM SalesDetails d ORDER BY d.saleDetailId")
+    List<SalesDetailsDTO> findAllDtos();
+
+    @Query("SELECT new com.salesapplication.dto.SalesDetailsDTO(d.saleDetailId, d.sale.saleId, d.vehicle.vehicleId, d.price, d.vehicleCount) "
+            + "FROM SalesDetails d WHERE d.saleDetailId = :id")
+    Optional<SalesDetailsDTO> findDtoById(@Param("id") int id);
+
+    @Query("SELECT new com.salesapplication.dto.SalesDetailsDTO(d.saleDetailId, d.sale.saleId, d.vehicle.vehicleId, d.price, d.vehicleCount) "
+            + "FROM SalesDetails d WHERE d.sale.saleId = :saleId ORDER BY d.saleDetailId")
+    List<SalesDetailsDTO> findDtosBySaleId(@Param("saleId") int saleId);
 }
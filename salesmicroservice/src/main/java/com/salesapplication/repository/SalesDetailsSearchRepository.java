@@ -0,0 +1,42 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtered sales details searches built with the Criteria API, mixed into {@link SalesDetailsRepository}.
+ * The date, total and buyer filters apply to the sale a line belongs to, the vehicle filter to the line itself.
+ * Results are ordered by (saleId, saleDetailId), which both {@code idx_sales_details_sale_covering} and
+ * {@code idx_sales_details_vehicle_sale} return in index order, and paged by keyset on that pair.
+ */
+public interface SalesDetailsSearchRepository {
+
+    /**
+     * Returns one keyset page of the sales details matching the criteria.
+     *
+     * @param criteria The filters to apply.
+     * @param afterSaleId The sale ID of the last row of the previous page; 0 for the first page.
+     * @param afterSaleDetailId The sale detail ID of the last row of the previous page.
+     * @param limit The maximum number of rows to return.
+     * @return The matching sales details after the cursor, as DTOs.
+     */
+    List<SalesDetailsDTO> search(SalesSearchCriteria criteria, int afterSaleId, int afterSaleDetailId, int limit);
+
+    /**
+     * Returns the sale dates of the first matching sales details, for estimating how many match in total.
+     *
+     * @param criteria The filters to apply.
+     * @param limit The maximum number of dates to return.
+     * @return The sale dates in (saleId, saleDetailId) order.
+     */
+    List<LocalDateTime> findSaleDates(SalesSearchCriteria criteria, int limit);
+
+    /**
+     * @param criteria The filters to apply.
+     * @return The exact number of matching sales details.
+     */
+    long count(SalesSearchCriteria criteria);
+}
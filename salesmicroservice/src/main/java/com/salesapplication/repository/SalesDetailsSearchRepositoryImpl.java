@@ -0,0 +1,100 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+import com.salesapplication.model.Sales;
+import com.salesapplication.model.SalesDetails;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link SalesDetailsSearchRepository}. Rows are projected straight into DTOs,
+ * so no SalesDetails entity is loaded. The sales table is only joined when a filter reads it; otherwise the
+ * sale ID comes from the line's own foreign key column.
+ */
+public class SalesDetailsSearchRepositoryImpl implements SalesDetailsSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SalesDetailsDTO> search(SalesSearchCriteria criteria, int afterSaleId, int afterSaleDetailId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SalesDetailsDTO> query = cb.createQuery(SalesDetailsDTO.class);
+        Root<SalesDetails> detail = query.from(SalesDetails.class);
+        Path<Integer> saleId = detail.get("sale").get("saleId");
+        Path<Integer> saleDetailId = detail.get("saleDetailId");
+        List<Predicate> predicates = predicates(cb, detail, filtersSale(criteria) ? detail.join("sale") : null, criteria);
+        predicates.add(cb.or(
+                cb.greaterThan(saleId, afterSaleId),
+                cb.and(cb.equal(saleId, afterSaleId), cb.greaterThan(saleDetailId, afterSaleDetailId))));
+        query.select(cb.construct(SalesDetailsDTO.class, saleDetailId, saleId, detail.get("vehicle").get("vehicleId"),
+                        detail.get("price"), detail.get("vehicleCount")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(saleId), cb.asc(saleDetailId));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<LocalDateTime> findSaleDates(SalesSearchCriteria criteria, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LocalDateTime> query = cb.createQuery(LocalDateTime.class);
+        Root<SalesDetails> detail = query.from(SalesDetails.class);
+        Join<SalesDetails, Sales> sale = detail.join("sale");
+        query.select(sale.<LocalDateTime>get("saleDate"))
+                .where(predicates(cb, detail, sale, criteria).toArray(Predicate[]::new))
+                .orderBy(cb.asc(detail.get("sale").get("saleId")), cb.asc(detail.get("saleDetailId")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long count(SalesSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<SalesDetails> detail = query.from(SalesDetails.class);
+        query.select(cb.count(detail))
+                .where(predicates(cb, detail, filtersSale(criteria) ? detail.join("sale") : null, criteria)
+                        .toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static boolean filtersSale(SalesSearchCriteria criteria) {
+        return criteria.getFrom() != null || criteria.getTo() != null || criteria.getMinPrice() != null
+                || criteria.getMaxPrice() != null || criteria.getUserId() != null;
+    }
+
+    // The sale join may be null when the criteria have no filter on the sale
+    private static List<Predicate> predicates(CriteriaBuilder cb, Root<SalesDetails> detail, Join<SalesDetails, Sales> sale,
+                                              SalesSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(sale.<LocalDateTime>get("saleDate"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            predicates.add(cb.lessThan(sale.<LocalDateTime>get("saleDate"), criteria.getTo()));
+        }
+        if (criteria.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(sale.<Double>get("salePrice"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(sale.<Double>get("salePrice"), criteria.getMaxPrice()));
+        }
+        if (criteria.getUserId() != null) {
+            predicates.add(cb.equal(sale.get("user").get("userId"), criteria.getUserId()));
+        }
+        if (criteria.getVehicleId() != null) {
+            predicates.add(cb.equal(detail.get("vehicle").get("vehicleId"), criteria.getVehicleId()));
+        }
+        return predicates;
+    }
+}
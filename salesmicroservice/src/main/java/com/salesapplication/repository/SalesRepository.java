@@ -1,23 +1,68 @@
 package com.salesapplication.repository;
 
+import com.salesapplication.dto.SalesDTO;
 import com.salesapplication.model.Sales;
 import com.vehicleinventorysystem.model.User;
 
+import jakarta.persistence.QueryHint;
+
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.query.Procedure;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SalesRepository extends JpaRepository<Sales, Integer> {
-    
-	   // Custom query to call a stored procedure
+public interface SalesRepository extends JpaRepository<Sales, Integer>, SalesSearchRepository {
+
+	   // Custom query to call a stored procedure; it answers with one row holding its status and the new sale's ID
 	   @Query(value = "CALL insert_sale_records(:userId, :vehicleDataJson, @error_message);", nativeQuery = true)
-	    String insertSaleRecords(@Param("userId") int userId, @Param("vehicleDataJson") String vehicleDataJson);
+	    SaleRecordsResult insertSaleRecords(@Param("userId") int userId, @Param("vehicleDataJson") String vehicleDataJson);
+
+	   // The row insert_sale_records answers with: errorMessage is "success" or the reason the order was refused,
+	   // saleId the sale it wrote, null when it wrote none
+	   interface SaleRecordsResult {
+	       String getErrorMessage();
+
+	       Integer getSaleId();
+	   }
 
 	   // Query method to find sales records by user
 	   List<Sales> findByUser(User user);
+
+	   // Read paths project straight into SalesDTO; s.user.userId resolves to the sales.user_id
+	   // foreign key column, so no User entity is joined or hydrated per row
+	   @Query("SELECT new com.salesapplication.dto.SalesDTO(s.saleId, s.salePrice, s.user.userId, s.saleDate) "
+	           + "FROM Sales s ORDER BY s.saleId ASC")
+	   List<SalesDTO> findAllDtos();
+
+	   @Query("SELECT new com.salesapplication.dto.SalesDTO(s.saleId, s.salePrice, s.user.userId, s.saleDate) "
+	           + "FROM Sales s WHERE s.saleId = :saleId")
+	   Optional<SalesDTO> findDtoById(@Param("saleId") int saleId);
+
+	   @Query("SELECT new com.salesapplication.dto.SalesDTO(s.saleId, s.salePrice, s.user.userId, s.saleDate) "
+	           + "FROM Sales s WHERE s.user.userId = :userId ORDER BY s.saleId ASC")
+	   List<SalesDTO> findDtosByUserId(@Param("userId") int userId);
+
+	   // Keyset page: the next sales after the given sale ID, ordered by sale ID
+	   @Query("SELECT new com.salesapplication.dto.SalesDTO(s.saleId, s.salePrice, s.user.userId, s.saleDate) "
+	           + "FROM Sales s WHERE s.saleId > :afterId ORDER BY s.saleId ASC")
+	   List<SalesDTO> findDtoPageAfter(@Param("afterId") int afterId, Pageable pageable);
+
+	   // Streams every sale off a server-side cursor; a fetch size of Integer.MIN_VALUE
+	   // makes MySQL Connector/J stream rows one at a time instead of buffering the result
+	   @QueryHints({
+	           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+	           @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+	   })
+	   @Query("SELECT new com.salesapplication.dto.SalesDTO(s.saleId, s.salePrice, s.user.userId, s.saleDate) "
+	           + "FROM Sales s ORDER BY s.saleId ASC")
+	   Stream<SalesDTO> streamAllDtos();
 }
@@ -0,0 +1,182 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesRollupDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Access to {@code sales_rollup}, the daily sales aggregates behind the analytics endpoint.
+ * <p>
+ * The same aggregate query per dimension is used both to write closed days into the table and to
+ * compute the open day live, so rolled-up and live figures always agree. Date ranges are half-open:
+ * {@code from} inclusive, {@code to} exclusive.
+ */
+@Repository
+public class SalesRollupRepository {
+
+    /**
+     * The ways a day of sales is broken down.
+     */
+    public enum Dimension {
+        /** One row per day for all sales. */
+        ALL("all",
+                "SELECT CAST(x.sale_date AS DATE) AS bucket_date, 0 AS dimension_id, COUNT(*) AS sale_count, "
+                        + "SUM(x.units) AS units, SUM(x.total_amount) AS revenue "
+                        + "FROM (" + SALE_UNITS + ") x GROUP BY CAST(x.sale_date AS DATE)"),
+        /** One row per day and buyer; revenue is the buyers' sale totals. */
+        USER("user",
+                "SELECT CAST(x.sale_date AS DATE) AS bucket_date, x.user_id AS dimension_id, COUNT(*) AS sale_count, "
+                        + "SUM(x.units) AS units, SUM(x.total_amount) AS revenue "
+                        + "FROM (" + SALE_UNITS + ") x GROUP BY CAST(x.sale_date AS DATE), x.user_id"),
+        /** One row per day and vehicle; revenue is the sum of the detail lines' prices. */
+        VEHICLE("vehicle",
+                "SELECT CAST(s.sale_date AS DATE) AS bucket_date, d.vehicle_id AS dimension_id, "
+                        + "COUNT(DISTINCT s.sale_id) AS sale_count, SUM(d.vehicle_count) AS units, SUM(d.price) AS revenue "
+                        + "FROM sales_details d JOIN sales s ON s.sale_id = d.sale_id "
+                        + "WHERE s.sale_date >= :from AND s.sale_date < :to "
+                        + "GROUP BY CAST(s.sale_date AS DATE), d.vehicle_id");
+
+        private final String key;
+
+        private final String aggregateSql;
+
+        Dimension(String key, String aggregateSql) {
+            this.key = key;
+            this.aggregateSql = aggregateSql;
+        }
+
+        /** @return The value stored in the {@code dimension} column and accepted by the endpoint. */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * Parses a dimension as accepted by the analytics endpoint.
+         *
+         * @param key "all", "vehicle" or "user", in any case.
+         * @return The matching dimension.
+         * @throws IllegalArgumentException If the key is not a known dimension.
+         */
+        public static Dimension of(String key) {
+            for (Dimension dimension : values()) {
+                if (dimension.key.equalsIgnoreCase(key)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension: " + key);
+        }
+    }
+
+    // Each sale in the range with the vehicle units of its detail lines; sales are aggregated
+    // before joining so a sale's total is not repeated per detail line
+    private static final String SALE_UNITS =
+            "SELECT s.sale_id, s.user_id, s.sale_date, s.total_amount, COALESCE(SUM(d.vehicle_count), 0) AS units "
+                    + "FROM sales s LEFT JOIN sales_details d ON d.sale_id = s.sale_id "
+                    + "WHERE s.sale_date >= :from AND s.sale_date < :to "
+                    + "GROUP BY s.sale_id, s.user_id, s.sale_date, s.total_amount";
+
+    private static final RowMapper<SalesRollupDTO> ROW_MAPPER = (rs, rowNum) -> new SalesRollupDTO(
+            rs.getObject("bucket_date", LocalDate.class),
+            rs.getInt("dimension_id"),
+            rs.getLong("sale_count"),
+            rs.getDouble("units"),
+            rs.getDouble("revenue"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SalesRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return The last day that has been rolled up, or null if nothing has been rolled up yet.
+     */
+    public LocalDate findLastRolledUpDay() {
+        return jdbcTemplate.queryForObject("SELECT MAX(bucket_date) FROM sales_rollup WHERE dimension = 'all'",
+                new MapSqlParameterSource(), LocalDate.class);
+    }
+
+    /**
+     * @return The day of the oldest sale, or null if there are no sales.
+     */
+    public LocalDate findFirstSaleDay() {
+        return jdbcTemplate.queryForObject("SELECT CAST(MIN(sale_date) AS DATE) FROM sales",
+                new MapSqlParameterSource(), LocalDate.class);
+    }
+
+    /**
+     * @param saleIds The IDs of the sales to look up.
+     * @return The distinct days the given sales were made on.
+     */
+    public List<LocalDate> findSaleDays(Collection<Integer> saleIds) {
+        if (saleIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("SELECT DISTINCT CAST(sale_date AS DATE) FROM sales WHERE sale_id IN (:saleIds)",
+                new MapSqlParameterSource("saleIds", saleIds), LocalDate.class);
+    }
+
+    /**
+     * Reads rolled-up days, ordered by day and dimension ID.
+     *
+     * @param dimension The breakdown to read.
+     * @param dimensionId Only this vehicle or user ID, or null for all of them.
+     * @param from The first day, inclusive.
+     * @param to The last day, exclusive.
+     */
+    public List<SalesRollupDTO> findRollups(Dimension dimension, Integer dimensionId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = range(from, to).addValue("dimension", dimension.key());
+        String sql = "SELECT bucket_date, dimension_id, sale_count, units, revenue FROM sales_rollup "
+                + "WHERE dimension = :dimension AND bucket_date >= :fromDay AND bucket_date < :toDay";
+        if (dimensionId != null) {
+            sql += " AND dimension_id = :dimensionId";
+            params.addValue("dimensionId", dimensionId);
+        }
+        return jdbcTemplate.query(sql + " ORDER BY bucket_date, dimension_id", params, ROW_MAPPER);
+    }
+
+    /**
+     * Aggregates days straight from the sales tables, for days that are not rolled up yet.
+     *
+     * @param dimension The breakdown to compute.
+     * @param from The first day, inclusive.
+     * @param to The last day, exclusive.
+     */
+    public List<SalesRollupDTO> aggregate(Dimension dimension, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(dimension.aggregateSql, range(from, to), ROW_MAPPER);
+    }
+
+    /**
+     * Replaces the rolled-up rows of a range of days, in every dimension, with freshly aggregated ones.
+     * Must run in a transaction so readers never see a day half rewritten.
+     *
+     * @param from The first day, inclusive.
+     * @param to The last day, exclusive.
+     */
+    public void rollUp(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = range(from, to);
+        jdbcTemplate.update("DELETE FROM sales_rollup WHERE bucket_date >= :fromDay AND bucket_date < :toDay", params);
+        for (Dimension dimension : Dimension.values()) {
+            jdbcTemplate.update("INSERT INTO sales_rollup (bucket_date, dimension, dimension_id, sale_count, units, revenue) "
+                    + "SELECT q.bucket_date, '" + dimension.key() + "', q.dimension_id, q.sale_count, q.units, q.revenue "
+                    + "FROM (" + dimension.aggregateSql + ") q", params);
+        }
+    }
+
+    private static MapSqlParameterSource range(LocalDate from, LocalDate to) {
+        // sale_date is a timestamp; comparing it against midnight rather than casting it keeps the range index-friendly
+        return new MapSqlParameterSource()
+                .addValue("fromDay", from)
+                .addValue("toDay", to)
+                .addValue("from", from.atStartOfDay())
+                .addValue("to", to.atStartOfDay());
+    }
+}
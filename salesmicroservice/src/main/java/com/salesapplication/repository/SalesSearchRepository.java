@@ -0,0 +1,41 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtered sales searches built with the Criteria API, mixed into {@link SalesRepository}.
+ * Results are ordered by (saleDate, saleId), the leading columns of {@code idx_sales_date_covering},
+ * and paged by keyset on that pair.
+ */
+public interface SalesSearchRepository {
+
+    /**
+     * Returns one keyset page of the sales matching the criteria.
+     *
+     * @param criteria The filters to apply.
+     * @param afterSaleDate The sale date of the last row of the previous page; null for the first page.
+     * @param afterSaleId The sale ID of the last row of the previous page; ignored for the first page.
+     * @param limit The maximum number of rows to return.
+     * @return The matching sales after the cursor, as DTOs.
+     */
+    List<SalesDTO> search(SalesSearchCriteria criteria, LocalDateTime afterSaleDate, int afterSaleId, int limit);
+
+    /**
+     * Returns the sale dates of the first matching sales, for estimating how many match in total.
+     *
+     * @param criteria The filters to apply.
+     * @param limit The maximum number of dates to return.
+     * @return The sale dates in (saleDate, saleId) order.
+     */
+    List<LocalDateTime> findSaleDates(SalesSearchCriteria criteria, int limit);
+
+    /**
+     * @param criteria The filters to apply.
+     * @return The exact number of matching sales.
+     */
+    long count(SalesSearchCriteria criteria);
+}
@@ -0,0 +1,99 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+import com.salesapplication.model.Sales;
+import com.salesapplication.model.SalesDetails;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link SalesSearchRepository}. Rows are projected straight into DTOs,
+ * so no Sales entity is loaded. The vehicle filter is an EXISTS on the sale's detail lines, backed by
+ * {@code idx_sales_details_vehicle_sale}.
+ */
+public class SalesSearchRepositoryImpl implements SalesSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SalesDTO> search(SalesSearchCriteria criteria, LocalDateTime afterSaleDate, int afterSaleId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SalesDTO> query = cb.createQuery(SalesDTO.class);
+        Root<Sales> sale = query.from(Sales.class);
+        Path<LocalDateTime> saleDate = sale.get("saleDate");
+        Path<Integer> saleId = sale.get("saleId");
+        List<Predicate> predicates = predicates(cb, query, sale, criteria);
+        if (afterSaleDate != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(saleDate, afterSaleDate),
+                    cb.and(cb.equal(saleDate, afterSaleDate), cb.greaterThan(saleId, afterSaleId))));
+        }
+        query.select(cb.construct(SalesDTO.class, saleId, sale.get("salePrice"), sale.get("user").get("userId"), saleDate))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(saleDate), cb.asc(saleId));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<LocalDateTime> findSaleDates(SalesSearchCriteria criteria, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LocalDateTime> query = cb.createQuery(LocalDateTime.class);
+        Root<Sales> sale = query.from(Sales.class);
+        query.select(sale.<LocalDateTime>get("saleDate"))
+                .where(predicates(cb, query, sale, criteria).toArray(Predicate[]::new))
+                .orderBy(cb.asc(sale.<LocalDateTime>get("saleDate")), cb.asc(sale.<Integer>get("saleId")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long count(SalesSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Sales> sale = query.from(Sales.class);
+        query.select(cb.count(sale))
+                .where(predicates(cb, query, sale, criteria).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> predicates(CriteriaBuilder cb, AbstractQuery<?> query, Root<Sales> sale,
+                                              SalesSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(sale.<LocalDateTime>get("saleDate"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            predicates.add(cb.lessThan(sale.<LocalDateTime>get("saleDate"), criteria.getTo()));
+        }
+        if (criteria.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(sale.<Double>get("salePrice"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(sale.<Double>get("salePrice"), criteria.getMaxPrice()));
+        }
+        if (criteria.getUserId() != null) {
+            predicates.add(cb.equal(sale.get("user").get("userId"), criteria.getUserId()));
+        }
+        if (criteria.getVehicleId() != null) {
+            Subquery<Integer> lines = query.subquery(Integer.class);
+            Root<SalesDetails> detail = lines.from(SalesDetails.class);
+            lines.select(cb.literal(1))
+                    .where(cb.equal(detail.get("sale"), sale),
+                            cb.equal(detail.get("vehicle").get("vehicleId"), criteria.getVehicleId()));
+            predicates.add(cb.exists(lines));
+        }
+        return predicates;
+    }
+}
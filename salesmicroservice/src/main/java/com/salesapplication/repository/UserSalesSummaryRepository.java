@@ -0,0 +1,57 @@
+package com.salesapplication.repository;
+
+import com.salesapplication.model.UserSalesSummary;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintains {@code user_sales_summary}. Every change is a single atomic statement relative to
+ * the stored row, so concurrent writers for the same user never overwrite each other's deltas.
+ */
+@Repository
+public interface UserSalesSummaryRepository extends JpaRepository<UserSalesSummary, Integer> {
+
+    // Counts one new sale, creating the user's row on their first purchase
+    @Modifying
+    @Query(value = "INSERT INTO user_sales_summary (user_id, sale_count, total_spend, last_purchase_at) "
+            + "VALUES (:userId, 1, :amount, :saleDate) "
+            + "ON DUPLICATE KEY UPDATE sale_count = sale_count + 1, total_spend = total_spend + :amount, "
+            + "last_purchase_at = GREATEST(COALESCE(last_purchase_at, :saleDate), :saleDate)", nativeQuery = true)
+    int addSale(@Param("userId") int userId, @Param("amount") double amount, @Param("saleDate") LocalDateTime saleDate);
+
+    @Modifying
+    @Query(value = "UPDATE user_sales_summary SET total_spend = total_spend + :delta WHERE user_id = :userId", nativeQuery = true)
+    int adjustTotalSpend(@Param("userId") int userId, @Param("delta") double delta);
+
+    // Must run after the sale row is deleted, so the latest purchase date no longer sees it
+    @Modifying
+    @Query(value = "UPDATE user_sales_summary SET sale_count = sale_count - 1, total_spend = total_spend - :amount, "
+            + "last_purchase_at = (SELECT MAX(s.sale_date) FROM sales s WHERE s.user_id = :userId) "
+            + "WHERE user_id = :userId", nativeQuery = true)
+    int removeSale(@Param("userId") int userId, @Param("amount") double amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_sales_summary", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO user_sales_summary (user_id, sale_count, total_spend, last_purchase_at) "
+            + "SELECT s.user_id, COUNT(*), SUM(s.total_amount), MAX(s.sale_date) FROM sales s GROUP BY s.user_id", nativeQuery = true)
+    int insertAllFromSales();
+
+    @Modifying
+    @Query(value = "DELETE FROM user_sales_summary WHERE user_id = :userId", nativeQuery = true)
+    int deleteRow(@Param("userId") int userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_sales_summary (user_id, sale_count, total_spend, last_purchase_at) "
+            + "SELECT s.user_id, COUNT(*), SUM(s.total_amount), MAX(s.sale_date) FROM sales s "
+            + "WHERE s.user_id = :userId GROUP BY s.user_id", nativeQuery = true)
+    int insertFromSales(@Param("userId") int userId);
+}
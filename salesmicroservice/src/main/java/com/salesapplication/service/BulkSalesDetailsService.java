@@ -0,0 +1,321 @@
+package com.salesapplication.service;
+
+import com.salesapplication.config.SalesCacheConfig;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.repository.SalesDetailsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Service class for back-office corrections touching many sales detail rows at once.
+ * <p>
+ * Rows are processed in chunks of {@code bulkSalesDetails.batchSize}, one transaction per chunk. Existence
+ * checks take one query per chunk, and the writes go to the database as a single JDBC batch. If the batch
+ * fails, for example on a foreign key, the chunk is rolled back and replayed row by row, each row in its
+ * own savepoint, so that each row gets its own result. Results are only reported once the chunk has committed.
+ */
+@Service
+public class BulkSalesDetailsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkSalesDetailsService.class);
+
+    private final SalesDetailsRepository salesDetailsRepository;
+
+    private final Cache salesDetailsCache;
+
+    private final SalesAnalyticsService analyticsService;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final SavepointTemplate rowSavepoint;
+
+    private final int batchSize;
+
+    /**
+     * Constructor for BulkSalesDetailsService.
+     *
+     * @param salesDetailsRepository The repository for the batched writes.
+     * @param cacheManager The cache manager holding the sales details by sale ID cache.
+     * @param analyticsService The service whose rollups are refreshed for the affected sales.
+     * @param transactionManager The transaction manager used for chunk transactions.
+     * @param rowSavepoint The savepoint each row is replayed in after a failed batch.
+     * @param batchSize The number of rows written per transaction and JDBC batch.
+     */
+    @Autowired
+    public BulkSalesDetailsService(SalesDetailsRepository salesDetailsRepository,
+                                   CacheManager cacheManager,
+                                   SalesAnalyticsService analyticsService,
+                                   PlatformTransactionManager transactionManager,
+                                   SavepointTemplate rowSavepoint,
+                                   @Value("${bulkSalesDetails.batchSize:500}") int batchSize) {
+        this.salesDetailsRepository = salesDetailsRepository;
+        this.salesDetailsCache = cacheManager.getCache(SalesCacheConfig.SALES_DETAILS_BY_SALE_ID);
+        this.analyticsService = analyticsService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.rowSavepoint = rowSavepoint;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates many sales detail rows.
+     *
+     * @param rows The rows to create; saleDetailId is ignored.
+     * @return A response map with overall counts and one result per row, in input order, with the new IDs.
+     */
+    public Map<String, Object> createSalesDetailsBulk(List<SalesDetailsDTO> rows) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<PendingRow<SalesDetailsDTO>> chunk = new ArrayList<>();
+            for (int index = from; index < Math.min(from + batchSize, rows.size()); index++) {
+                chunk.add(new PendingRow<>(rows.get(index), result(index, null, results)));
+            }
+            chunk.forEach(row -> validate(row.value(), row));
+            failUnknownSales(chunk);
+
+            List<PendingRow<SalesDetailsDTO>> writable = pending(chunk);
+            writeChunk(writable, batch -> salesDetailsRepository.insertBatch(batch).stream().mapToInt(Integer::intValue).toArray(),
+                    (row, saleDetailId) -> row.result().put("saleDetailId", saleDetailId), "Sales Details Added Successfully");
+            afterWrite(succeeded(writable).stream().map(row -> row.value().getSaleId()).toList());
+        }
+        return response(results);
+    }
+
+    /**
+     * Updates many sales detail rows, matched by saleDetailId.
+     *
+     * @param rows The new values of the rows.
+     * @return A response map with overall counts and one result per row, in input order.
+     */
+    public Map<String, Object> updateSalesDetailsBulk(List<SalesDetailsDTO> rows) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<PendingRow<SalesDetailsDTO>> chunk = new ArrayList<>();
+            for (int index = from; index < Math.min(from + batchSize, rows.size()); index++) {
+                SalesDetailsDTO row = rows.get(index);
+                chunk.add(new PendingRow<>(row, result(index, row == null ? null : row.getSaleDetailId(), results)));
+            }
+            chunk.forEach(row -> validate(row.value(), row));
+            for (PendingRow<SalesDetailsDTO> row : pending(chunk)) {
+                if (row.value().getSaleDetailId() <= 0) {
+                    row.fail("Invalid input: saleDetailId is required");
+                }
+            }
+            Map<Integer, Integer> previousSaleIds = salesDetailsRepository.findSaleIdsByDetailIds(
+                    pending(chunk).stream().map(row -> row.value().getSaleDetailId()).toList());
+            for (PendingRow<SalesDetailsDTO> row : pending(chunk)) {
+                if (!previousSaleIds.containsKey(row.value().getSaleDetailId())) {
+                    row.fail("Sales Details with ID " + row.value().getSaleDetailId() + " not found");
+                }
+            }
+            failUnknownSales(chunk);
+
+            List<PendingRow<SalesDetailsDTO>> writable = pending(chunk);
+            writeChunk(writable, salesDetailsRepository::updateBatch, (row, count) -> { }, "Sales Details Updated Successfully");
+            Set<Integer> affectedSales = new HashSet<>();
+            for (PendingRow<SalesDetailsDTO> row : succeeded(writable)) {
+                affectedSales.add(row.value().getSaleId());
+                affectedSales.add(previousSaleIds.get(row.value().getSaleDetailId()));
+            }
+            afterWrite(affectedSales);
+        }
+        return response(results);
+    }
+
+    /**
+     * Deletes many sales detail rows by ID.
+     *
+     * @param saleDetailIds The IDs of the rows to delete.
+     * @return A response map with overall counts and one result per ID, in input order.
+     */
+    public Map<String, Object> deleteSalesDetailsBulk(List<Integer> saleDetailIds) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int from = 0; from < saleDetailIds.size(); from += batchSize) {
+            List<PendingRow<Integer>> chunk = new ArrayList<>();
+            for (int index = from; index < Math.min(from + batchSize, saleDetailIds.size()); index++) {
+                chunk.add(new PendingRow<>(saleDetailIds.get(index), result(index, saleDetailIds.get(index), results)));
+            }
+            Map<Integer, Integer> saleIds = salesDetailsRepository.findSaleIdsByDetailIds(values(chunk));
+            for (PendingRow<Integer> row : chunk) {
+                if (!saleIds.containsKey(row.value())) {
+                    row.fail("Sales Details with ID " + row.value() + " not found");
+                }
+            }
+
+            List<PendingRow<Integer>> writable = pending(chunk);
+            writeChunk(writable, salesDetailsRepository::deleteBatch, (row, count) -> { }, "Sales Details Deleted Successfully");
+            afterWrite(succeeded(writable).stream().map(row -> saleIds.get(row.value())).toList());
+        }
+        return response(results);
+    }
+
+    /**
+     * Writes the rows as one batch in a chunk transaction. If the batch fails, the rows are written again one
+     * by one in savepoints of a new chunk transaction, so that a bad row only fails itself.
+     *
+     * @param rows The rows still pending.
+     * @param write Writes a batch of values and returns one outcome per value: a generated ID or an update count,
+     *              where 0 means the database did not find the row.
+     * @param written Records a row's outcome in its result once the chunk has committed.
+     * @param successMessage The message reported for each written row.
+     */
+    private <T> void writeChunk(List<PendingRow<T>> rows, Function<List<T>, int[]> write,
+                                BiConsumer<PendingRow<T>, Integer> written, String successMessage) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            int[] outcomes = chunkTransaction.execute(status -> write.apply(values(rows)));
+            for (int i = 0; i < rows.size(); i++) {
+                report(rows.get(i), outcomes[i], written, successMessage);
+            }
+            return;
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .addKeyValue("rows", rows.size())
+                    .addKeyValue("reason", rootMessage(e))
+                    .log("Sales details batch failed, replaying row by row");
+        }
+
+        int[] outcomes = new int[rows.size()];
+        String[] errors = new String[rows.size()];
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    List<T> row = List.of(rows.get(i).value());
+                    try {
+                        outcomes[i] = rowSavepoint.execute(() -> write.apply(row))[0];
+                    } catch (RuntimeException e) {
+                        errors[i] = "Database error: " + rootMessage(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The chunk did not commit, so none of its rows were stored
+            log.atError().addKeyValue("rows", rows.size()).setCause(e).log("Sales details chunk not committed");
+            rows.forEach(row -> row.fail("Database error: " + rootMessage(e)));
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] != null) {
+                rows.get(i).fail(errors[i]);
+            } else {
+                report(rows.get(i), outcomes[i], written, successMessage);
+            }
+        }
+    }
+
+    private static <T> void report(PendingRow<T> row, int outcome, BiConsumer<PendingRow<T>, Integer> written,
+                                   String successMessage) {
+        // Drivers may report SUCCESS_NO_INFO (-2) instead of a count for batched statements
+        if (outcome == 0) {
+            row.fail("Sales Details with ID " + row.result().get("saleDetailId") + " not found");
+        } else {
+            written.accept(row, outcome);
+            row.succeed(successMessage);
+        }
+    }
+
+    private void validate(SalesDetailsDTO row, PendingRow<?> pending) {
+        if (row == null) {
+            pending.fail("Invalid input: row must not be null");
+        } else if (row.getSaleId() <= 0 || row.getVehicleId() <= 0) {
+            pending.fail("Invalid input: saleId and vehicleId are required");
+        } else if (row.getVehicleCount() <= 0 || row.getPrice() < 0) {
+            pending.fail("Invalid input: vehicleCount must be positive and price must not be negative");
+        }
+    }
+
+    private void failUnknownSales(List<PendingRow<SalesDetailsDTO>> chunk) {
+        List<PendingRow<SalesDetailsDTO>> pending = pending(chunk);
+        Set<Integer> existing = salesDetailsRepository.findExistingSaleIds(
+                pending.stream().map(row -> row.value().getSaleId()).distinct().toList());
+        for (PendingRow<SalesDetailsDTO> row : pending) {
+            if (!existing.contains(row.value().getSaleId())) {
+                row.fail("Sale with ID " + row.value().getSaleId() + " not found");
+            }
+        }
+    }
+
+    private void afterWrite(Iterable<Integer> saleIds) {
+        Set<Integer> distinct = new HashSet<>();
+        saleIds.forEach(distinct::add);
+        if (distinct.isEmpty()) {
+            return;
+        }
+        distinct.forEach(salesDetailsCache::evict);
+        analyticsService.salesChanged(distinct);
+    }
+
+    private static <T> List<PendingRow<T>> pending(List<PendingRow<T>> rows) {
+        return rows.stream().filter(row -> "pending".equals(row.result().get("status"))).toList();
+    }
+
+    private static <T> List<PendingRow<T>> succeeded(List<PendingRow<T>> rows) {
+        return rows.stream().filter(row -> "success".equals(row.result().get("status"))).toList();
+    }
+
+    private static <T> List<T> values(List<PendingRow<T>> rows) {
+        return rows.stream().map(PendingRow::value).toList();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private static Map<String, Object> result(int index, Integer saleDetailId, List<Map<String, Object>> results) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("saleDetailId", saleDetailId);
+        result.put("status", "pending");
+        result.put("message", null);
+        results.add(result);
+        return result;
+    }
+
+    private static Map<String, Object> response(List<Map<String, Object>> results) {
+        long succeeded = results.stream().filter(result -> "success".equals(result.get("status"))).count();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", succeeded == results.size() ? "success" : succeeded == 0 ? "error" : "partial");
+        response.put("total", results.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", results.size() - succeeded);
+        response.put("results", results);
+        return response;
+    }
+
+    /**
+     * An input row together with the result entry it reports into.
+     */
+    private record PendingRow<T>(T value, Map<String, Object> result) {
+
+        void succeed(String message) {
+            result.put("status", "success");
+            result.put("message", message);
+        }
+
+        void fail(String message) {
+            result.put("status", "error");
+            result.put("message", message);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.salesapplication.service;
+
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for ingesting many sales orders in one request.
+ * Orders are written in chunks of {@code bulkSales.batchSize}, one transaction per chunk, and each
+ * order runs inside its own savepoint so a failing order is rolled back without aborting the rest.
+ */
+@Service
+public class BulkSalesService {
+
+    private final SaleRecordWriter saleRecordWriter;
+
+    private final UserLookupCache userLookupCache;
+
+    private final VehicleAvailabilityCache vehicleAvailability;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final SavepointTemplate orderSavepoint;
+
+    private final int batchSize;
+
+    /**
+     * Constructor for BulkSalesService.
+     *
+     * @param saleRecordWriter The writer that inserts one order.
+     * @param userLookupCache The cache used to validate users.
+     * @param vehicleAvailability The local available counts, preloaded for each chunk.
+     * @param transactionManager The transaction manager used for chunk transactions.
+     * @param orderSavepoint The savepoint each order of a chunk is written in.
+     * @param batchSize The number of orders written per transaction.
+     */
+    @Autowired
+    public BulkSalesService(SaleRecordWriter saleRecordWriter,
+                            UserLookupCache userLookupCache,
+                            VehicleAvailabilityCache vehicleAvailability,
+                            PlatformTransactionManager transactionManager,
+                            SavepointTemplate orderSavepoint,
+                            @Value("${bulkSales.batchSize:100}") int batchSize) {
+        this.saleRecordWriter = saleRecordWriter;
+        this.userLookupCache = userLookupCache;
+        this.vehicleAvailability = vehicleAvailability;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.orderSavepoint = orderSavepoint;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds many sales orders, reading them chunk by chunk from the given iterator.
+     *
+     * @param orders The orders, each with a userId and a list of vehicles.
+     * @return A response map with overall counts and one result per order, in input order.
+     */
+    public Map<String, Object> addSalesBulk(Iterator<SaleOrderRequest> orders) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        int index = 0;
+        boolean inputComplete = false;
+
+        while (!inputComplete) {
+            List<PendingOrder> chunk = new ArrayList<>(batchSize);
+            try {
+                while (chunk.size() < batchSize && orders.hasNext()) {
+                    SaleOrderRequest order = orders.next();
+                    chunk.add(parse(index++, order, results));
+                }
+                inputComplete = !orders.hasNext();
+            } catch (RuntimeException e) {
+                // The input cannot be resynchronised after a malformed entry, so stop reading here
+                results.add(result(index, null, "error", "Invalid input: " + e.getMessage()));
+                inputComplete = true;
+            }
+            writeChunk(chunk);
+        }
+
+        long succeeded = results.stream().filter(result -> "success".equals(result.get("status"))).count();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", succeeded == results.size() ? "success" : succeeded == 0 ? "error" : "partial");
+        response.put("total", results.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", results.size() - succeeded);
+        response.put("results", results);
+        return response;
+    }
+
+    private PendingOrder parse(int index, SaleOrderRequest order, List<Map<String, Object>> results) {
+        Map<String, Object> result = result(index, order == null ? null : order.getUserId(), "pending", null);
+        results.add(result);
+        try {
+            if (order == null) {
+                throw new IllegalArgumentException("order must not be null");
+            }
+            order.validate();
+            return new PendingOrder(order.getUserId(), order.getVehicles(), result);
+        } catch (RuntimeException e) {
+            result.put("status", "error");
+            result.put("message", "Invalid input: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeChunk(List<PendingOrder> chunk) {
+        List<PendingOrder> valid = chunk.stream().filter(order -> order != null).collect(Collectors.toList());
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // Validate every distinct user in the chunk once, before opening the transaction
+        Set<Integer> userIds = valid.stream().map(PendingOrder::userId).collect(Collectors.toSet());
+        Map<Integer, String> userErrors = new HashMap<>();
+        for (int userId : userIds) {
+            try {
+                if (userLookupCache.getUser(userId) == null) {
+                    userErrors.put(userId, "Invalid input: User with ID " + userId + " not found");
+                }
+            } catch (RuntimeException e) {
+                userErrors.put(userId, "Processing error: " + e.getMessage());
+            }
+        }
+
+        List<PendingOrder> writable = new ArrayList<>();
+        for (PendingOrder order : valid) {
+            String userError = userErrors.get(order.userId());
+            if (userError != null) {
+                order.fail(userError);
+            } else {
+                writable.add(order);
+            }
+        }
+        if (writable.isEmpty()) {
+            return;
+        }
+        // Vehicle counts too, so the orders only read them once they hold their vehicle locks
+        vehicleAvailability.preload(writable.stream().flatMap(order -> order.vehicles().stream()).toList());
+
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                for (PendingOrder order : writable) {
+                    try {
+                        orderSavepoint.executeWithoutResult(() -> saleRecordWriter.write(order.userId(), order.vehicles()));
+                        order.succeed();
+                    } catch (IllegalArgumentException e) {
+                        order.fail("Invalid input: " + e.getMessage());
+                    } catch (RuntimeException e) {
+                        order.fail("Processing error: " + e.getMessage());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The chunk did not commit, so the orders that had succeeded were not stored either
+            for (PendingOrder order : writable) {
+                if ("success".equals(order.result().get("status"))) {
+                    order.fail("Processing error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> result(int index, Integer userId, String status, String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("userId", userId);
+        result.put("status", status);
+        result.put("message", message);
+        return result;
+    }
+
+    /**
+     * A parsed order together with the result entry it reports into.
+     */
+    private record PendingOrder(int userId, List<VehiclePurchaseRequest> vehicles, Map<String, Object> result) {
+
+        void succeed() {
+            result.put("status", "success");
+            result.put("message", "Sales processed successfully");
+        }
+
+        void fail(String message) {
+            result.put("status", "error");
+            result.put("message", message);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.salesapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Store of responses by {@code Idempotency-Key}, so a retried order is answered without being written twice.
+ * <p>
+ * The first request with a key runs and its response is kept for {@code idempotency.ttl}, for at most
+ * {@code idempotency.maximumSize} keys. Retries with the same key and the same body get that response back
+ * with an {@value #REPLAYED_HEADER} header; a retry arriving while the first request still runs waits for it,
+ * up to {@code idempotency.waitTimeout}. Reusing a key for a different body is rejected. Server errors are
+ * not kept, so the order can be retried with the same key.
+ * <p>
+ * Keys are scoped to the operation they were sent to, so the same key used on two endpoints names two
+ * different requests rather than replaying one endpoint's response on the other.
+ * <p>
+ * Keys are held per node; retries must reach the node that saw the first attempt to be deduplicated.
+ */
+@Component
+public class IdempotencyStore {
+
+    /** Request header carrying the client's idempotency key. */
+    public static final String KEY_HEADER = "Idempotency-Key";
+
+    /** Response header set on responses replayed from the store. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<Map<String, Object>>> response) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Entry> entries;
+
+    private final long waitTimeoutMillis;
+
+    /**
+     * Constructor for IdempotencyStore.
+     *
+     * @param objectMapper The mapper used to fingerprint request bodies.
+     * @param meterRegistry The registry that receives the store's hit and eviction metrics.
+     * @param maximumSize The maximum number of keys kept.
+     * @param ttl How long a response is kept after the first request with its key.
+     * @param waitTimeout How long a concurrent duplicate waits for the first request to finish.
+     */
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.maximumSize:100000}") long maximumSize,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.waitTimeout:30s}") Duration waitTimeout) {
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Runs a request at most once per operation and key. The action is run on the calling thread when this is
+     * the first request with the key; otherwise the stored or in-flight response is returned.
+     *
+     * @param operation The operation the key is scoped to, such as the request path.
+     * @param key The client's idempotency key.
+     * @param request The request body, compared with the body first sent with the key.
+     * @param action Produces the response of the first request with the key.
+     * @return The response: fresh, replayed, or a 409/422 error when the key cannot be used.
+     * @throws IllegalArgumentException If the key is blank or longer than 255 characters.
+     */
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> execute(
+            String operation, String key, Object request, Supplier<CompletableFuture<ResponseEntity<Map<String, Object>>>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Entry created = new Entry(fingerprint(request), new CompletableFuture<>());
+        String scopedKey = operation + " " + key;
+        Entry entry = entries.get(scopedKey, k -> created);
+        if (entry != created) {
+            if (!entry.fingerprint().equals(created.fingerprint())) {
+                return CompletableFuture.completedFuture(error(HttpStatus.UNPROCESSABLE_ENTITY,
+                        KEY_HEADER + " " + key + " was already used for a different request"));
+            }
+            // A dependent stage, so a timeout here does not complete the shared response
+            return entry.response()
+                    .thenApply(IdempotencyStore::replayed)
+                    .exceptionally(e -> error(HttpStatus.INTERNAL_SERVER_ERROR, "Processing error: " + e.getMessage()))
+                    .completeOnTimeout(error(HttpStatus.CONFLICT, "A request with " + KEY_HEADER + " " + key
+                            + " is still being processed"), waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        CompletableFuture<ResponseEntity<Map<String, Object>>> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((response, error) -> {
+            if (error != null || response.getStatusCode().is5xxServerError()) {
+                entries.asMap().remove(scopedKey, created);
+            }
+            if (error != null) {
+                created.response().completeExceptionally(error);
+            } else {
+                created.response().complete(response);
+            }
+        });
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> replayed(ResponseEntity<Map<String, Object>> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("status", "error", "message", message));
+    }
+}
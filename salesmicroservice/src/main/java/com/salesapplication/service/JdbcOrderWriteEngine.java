@@ -0,0 +1,124 @@
+package com.salesapplication.service;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.exception.VehicleNotFoundException;
+import com.salesapplication.model.Sales;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.repository.SalesDetailsRepository;
+import com.vehicleinventorysystem.model.User;
+import com.vehicleinventorysystem.model.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Order write engine that does the work of {@code insert_sale_records} in Java.
+ * <p>
+ * All vehicles of the order are read and row-locked with one query, in vehicle ID order so two orders
+ * sharing vehicles cannot deadlock. Stock is checked for every line before any row is changed, then decremented
+ * on the locked rows, the sale is inserted and its details follow as one JDBC batch. A line is priced at the
+ * vehicle's price times the count, and the sale total is the sum of its lines, as the procedure does.
+ * <p>
+ * The engine opens no transaction of its own: it runs in the caller's, so a rejected order leaves that
+ * transaction usable and the bulk paths can roll the order back to its savepoint.
+ */
+@Component
+@ConditionalOnProperty(name = "salesWrite.engine", havingValue = "jdbc")
+public class JdbcOrderWriteEngine implements OrderWriteEngine {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SalesDetailsRepository salesDetailsRepository;
+
+    private final SaleStageTimers stageTimers;
+
+    /**
+     * Constructor for JdbcOrderWriteEngine.
+     *
+     * @param salesDetailsRepository The repository used to batch-insert the sale details.
+     * @param stageTimers The timers the write is recorded under.
+     */
+    @Autowired
+    public JdbcOrderWriteEngine(SalesDetailsRepository salesDetailsRepository, SaleStageTimers stageTimers) {
+        this.salesDetailsRepository = salesDetailsRepository;
+        this.stageTimers = stageTimers;
+    }
+
+    @Override
+    public SalesDTO insertSale(int userId, List<VehiclePurchaseRequest> vehicles) {
+        return stageTimers.jdbcWrite().record(() -> write(userId, vehicles));
+    }
+
+    private SalesDTO write(int userId, List<VehiclePurchaseRequest> vehicles) {
+        SortedMap<Integer, Integer> requested = requestedCounts(vehicles);
+        Map<Integer, Vehicle> locked = lockVehicles(requested);
+
+        // Every line is checked before the first decrement, so a rejected order has changed nothing
+        for (Map.Entry<Integer, Integer> line : requested.entrySet()) {
+            Vehicle vehicle = locked.get(line.getKey());
+            if (vehicle == null) {
+                throw new VehicleNotFoundException(line.getKey());
+            }
+            if (vehicle.getAvailableCount() < line.getValue()) {
+                throw new InsufficientInventoryException(line.getKey());
+            }
+        }
+
+        double total = 0;
+        List<SalesDetailsDTO> details = new ArrayList<>(requested.size());
+        for (Map.Entry<Integer, Integer> line : requested.entrySet()) {
+            Vehicle vehicle = locked.get(line.getKey());
+            int count = line.getValue();
+            vehicle.setAvailableCount(vehicle.getAvailableCount() - count);
+
+            double price = vehicle.getPrice() * count;
+            total += price;
+            details.add(new SalesDetailsDTO(0, 0, line.getKey(), price, count));
+        }
+
+        Sales sale = new Sales();
+        sale.setUser(entityManager.getReference(User.class, userId));
+        sale.setSaleDate(LocalDateTime.now());
+        sale.setSalePrice(total);
+        // IDENTITY keys make the persist insert straight away, so the details can reference the sale ID
+        entityManager.persist(sale);
+        // Push the stock decrements out with the sale, before the details batch bypasses the persistence context
+        entityManager.flush();
+
+        details.forEach(detail -> detail.setSaleId(sale.getSaleId()));
+        salesDetailsRepository.insertBatch(details);
+        return new SalesDTO(sale.getSaleId(), sale.getSalePrice(), userId, sale.getSaleDate());
+    }
+
+    private Map<Integer, Vehicle> lockVehicles(SortedMap<Integer, Integer> requested) {
+        Map<Integer, Vehicle> locked = new TreeMap<>();
+        entityManager.createQuery("SELECT v FROM Vehicle v WHERE v.vehicleId IN :ids ORDER BY v.vehicleId", Vehicle.class)
+                .setParameter("ids", requested.keySet())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()
+                .forEach(vehicle -> locked.put(vehicle.getVehicleId(), vehicle));
+        return locked;
+    }
+
+    // Lines naming the same vehicle are merged, so each vehicle is locked, checked and written once
+    private static SortedMap<Integer, Integer> requestedCounts(List<VehiclePurchaseRequest> vehicles) {
+        SortedMap<Integer, Integer> requested = new TreeMap<>();
+        for (VehiclePurchaseRequest vehicle : vehicles) {
+            requested.merge(vehicle.getVehicleId(), vehicle.getCount(), Integer::sum);
+        }
+        return requested;
+    }
+}
@@ -0,0 +1,209 @@
+package com.salesapplication.service;
+
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces concurrent single orders for the same vehicles into one transaction.
+ * <p>
+ * The first order for a set of vehicles leads: it waits for the vehicles' admission locks, then writes itself and
+ * every order for the same vehicles that arrived meanwhile in one transaction, each order in a savepoint of its own.
+ * The orders that joined wait for the leader and get their own outcome once the transaction has committed. So the
+ * buyers of a hot vehicle queue behind one lock holder and share its commit, in arrival order, instead of each
+ * waiting out the lock timeout; and once the vehicle sells out, the rest of the group is rejected by
+ * {@link VehicleAdmissionControl} without reaching the database. Orders arriving while a group is written form the
+ * next group, whose leader queues on the locks.
+ * <p>
+ * The leader's admission covers the whole group, so its orders are written without being admitted again. An order
+ * that joined gives the leader up to {@code vehicleAdmission.lockTimeout} to start writing it, as long as it would
+ * have waited for the locks itself, and then fails as busy; once its write has started, it waits for the commit.
+ */
+@Component
+public class OrderCoalescer {
+
+    private final SaleRecordWriter saleRecordWriter;
+
+    private final VehicleAdmissionControl vehicleAdmission;
+
+    private final SavepointTemplate orderSavepoint;
+
+    private final TransactionTemplate groupTransaction;
+
+    private final long lockTimeoutMillis;
+
+    // Orders waiting for their leader, by the sorted IDs of their vehicles
+    private final Map<List<Integer>, List<PendingOrder>> waiting = new ConcurrentHashMap<>();
+
+    private final Counter coalescedOrders;
+
+    // Taken either by the leader writing the order or by the order itself giving up on its leader, never both
+    private record PendingOrder(int userId, List<VehiclePurchaseRequest> vehicles, CompletableFuture<Void> outcome,
+                                AtomicBoolean taken) {
+    }
+
+    /**
+     * Constructor for OrderCoalescer.
+     *
+     * @param saleRecordWriter The writer each order is written with.
+     * @param vehicleAdmission The admission control whose vehicle locks a leader waits for.
+     * @param orderSavepoint The savepoints that keep a rejected order from spoiling its group.
+     * @param transactionManager The transaction manager the groups are written with.
+     * @param meterRegistry The registry that receives the coalescing meters.
+     * @param lockTimeout How long an order waits for its leader to start writing it.
+     */
+    public OrderCoalescer(SaleRecordWriter saleRecordWriter, VehicleAdmissionControl vehicleAdmission,
+                          SavepointTemplate orderSavepoint, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${vehicleAdmission.lockTimeout:2s}") Duration lockTimeout) {
+        this.saleRecordWriter = saleRecordWriter;
+        this.vehicleAdmission = vehicleAdmission;
+        this.orderSavepoint = orderSavepoint;
+        this.groupTransaction = new TransactionTemplate(transactionManager);
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+        this.coalescedOrders = Counter.builder("sales.admission.coalesced")
+                .description("Orders written in the transaction of an earlier order for the same vehicles")
+                .register(meterRegistry);
+        Gauge.builder("sales.admission.waiting", waiting, orders -> orders.values().stream().mapToInt(List::size).sum())
+                .description("Orders waiting for an earlier order for the same vehicles to write them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes one order, alone or together with concurrent orders for the same vehicles, and returns once it
+     * has been committed. The caller must not be in a transaction.
+     *
+     * @param userId The ID of the user making the purchase.
+     * @param vehicles The vehicles and counts being purchased.
+     * @throws RuntimeException What {@link SaleRecordWriter#writeAdmitted} threw for this order, why its group failed,
+     *                          or that its leader did not start writing it within the lock timeout.
+     */
+    public void write(int userId, List<VehiclePurchaseRequest> vehicles) {
+        List<Integer> vehicleIds = vehicles.stream()
+                .map(VehiclePurchaseRequest::getVehicleId)
+                .distinct()
+                .sorted()
+                .toList();
+        PendingOrder order = new PendingOrder(userId, vehicles, new CompletableFuture<>(), new AtomicBoolean());
+        boolean[] leads = new boolean[1];
+        waiting.compute(vehicleIds, (ids, orders) -> {
+            if (orders == null) {
+                leads[0] = true;
+                orders = new ArrayList<>();
+            }
+            orders.add(order);
+            return orders;
+        });
+        if (leads[0]) {
+            lead(vehicleIds, vehicles);
+        } else {
+            awaitLeader(vehicleIds, order);
+        }
+        try {
+            order.outcome().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void awaitLeader(List<Integer> vehicleIds, PendingOrder order) {
+        try {
+            order.outcome().get(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(vehicleIds, order, new RuntimeException("Interrupted while waiting for vehicles", e));
+        } catch (TimeoutException e) {
+            giveUp(vehicleIds, order, new RuntimeException("Vehicles in this order are busy, retry later"));
+        } catch (ExecutionException e) {
+            // Completed; the outcome is rethrown by the caller
+        }
+    }
+
+    private void giveUp(List<Integer> vehicleIds, PendingOrder order, RuntimeException reason) {
+        if (!order.taken().compareAndSet(false, true)) {
+            // The leader is writing it already, so its outcome is on the way
+            return;
+        }
+        // Never empties the list, since the leader's own order stays in it until the leader removes the group
+        waiting.computeIfPresent(vehicleIds, (ids, orders) -> {
+            orders.remove(order);
+            return orders;
+        });
+        order.outcome().completeExceptionally(reason);
+    }
+
+    private void lead(List<Integer> vehicleIds, List<VehiclePurchaseRequest> vehicles) {
+        List<PendingOrder> group = null;
+        try (VehicleAdmissionControl.Admission admission = vehicleAdmission.admit(vehicles)) {
+            // Orders that join from here on wait for the next group
+            group = waiting.remove(vehicleIds);
+            writeGroup(group);
+        } catch (RuntimeException e) {
+            // Not admitted, or the group's transaction failed: none of its orders was written
+            if (group == null) {
+                group = waiting.remove(vehicleIds);
+            }
+            group.forEach(pending -> pending.outcome().completeExceptionally(e));
+        }
+    }
+
+    private void writeGroup(List<PendingOrder> group) {
+        if (group.size() == 1) {
+            PendingOrder order = group.get(0);
+            order.taken().set(true);
+            groupTransaction.executeWithoutResult(status -> saleRecordWriter.writeAdmitted(order.userId(), order.vehicles()));
+            order.outcome().complete(null);
+            return;
+        }
+        RuntimeException[] rejections = new RuntimeException[group.size()];
+        boolean[] written = new boolean[group.size()];
+        groupTransaction.executeWithoutResult(status -> {
+            for (int i = 0; i < group.size(); i++) {
+                PendingOrder order = group.get(i);
+                // Each order is taken only when its turn comes, so one that has given up meanwhile is skipped
+                if (!order.taken().compareAndSet(false, true)) {
+                    continue;
+                }
+                written[i] = true;
+                try {
+                    orderSavepoint.executeWithoutResult(() -> saleRecordWriter.writeAdmitted(order.userId(), order.vehicles()));
+                } catch (RuntimeException e) {
+                    rejections[i] = e;
+                }
+            }
+        });
+        for (int i = 0; i < group.size(); i++) {
+            if (!written[i]) {
+                continue;
+            }
+            if (i > 0) {
+                coalescedOrders.increment();
+            }
+            if (rejections[i] != null) {
+                group.get(i).outcome().completeExceptionally(rejections[i]);
+            } else {
+                group.get(i).outcome().complete(null);
+            }
+        }
+    }
+}
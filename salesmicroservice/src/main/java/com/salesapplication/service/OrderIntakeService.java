@@ -0,0 +1,221 @@
+package com.salesapplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.salesapplication.model.SaleOrderRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class accepting sales orders for asynchronous processing.
+ * <p>
+ * Accepted orders wait in a bounded in-memory queue of {@code orderIntake.queueCapacity} entries.
+ * {@code orderIntake.workers} worker threads drain it up to {@code orderIntake.batchSize} orders at a time
+ * and write each batch through {@link BulkSalesService}: one transaction per batch and a savepoint per order.
+ * This caps the database connections used for intake at the number of workers, however bursty the traffic.
+ * Order states are kept for {@code orderIntake.statusTtl} after the last change.
+ * <p>
+ * The queue is not durable. Orders still queued when the shutdown grace period runs out are lost,
+ * and clients can find out by polling their status.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class OrderIntakeService {
+
+    /**
+     * Lifecycle of an accepted order.
+     */
+    public enum State {
+        QUEUED, PROCESSING, SUCCEEDED, FAILED
+    }
+
+    /**
+     * The state of an accepted order as reported by the status endpoint.
+     *
+     * @param orderId The handle returned when the order was accepted.
+     * @param state The current state.
+     * @param message The outcome message once the order is processed, as returned by {@code /sales/addsales}.
+     * @param acceptedAt When the order was queued.
+     * @param updatedAt When the state last changed.
+     */
+    public record OrderStatus(String orderId, State state, String message, LocalDateTime acceptedAt, LocalDateTime updatedAt) {
+
+        OrderStatus next(State state, String message) {
+            return new OrderStatus(orderId, state, message, acceptedAt, LocalDateTime.now());
+        }
+    }
+
+    private record QueuedOrder(String orderId, SaleOrderRequest order) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final BulkSalesService bulkSalesService;
+
+    private final BlockingQueue<QueuedOrder> queue;
+
+    private final Cache<String, OrderStatus> statuses;
+
+    private final ExecutorService workers;
+
+    private final int batchSize;
+
+    private final Duration shutdownTimeout;
+
+    private final Counter rejections;
+
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for OrderIntakeService. Starts the worker threads.
+     *
+     * @param bulkSalesService The service that writes each batch of orders.
+     * @param meterRegistry The registry that receives the queue metrics.
+     * @param queueCapacity The maximum number of orders waiting to be processed.
+     * @param workerCount The number of worker threads, and so of database connections used for intake.
+     * @param batchSize The maximum number of orders written per transaction.
+     * @param statusMaximumSize The maximum number of order states kept.
+     * @param statusTtl How long an order's state is kept after it last changed.
+     * @param shutdownTimeout How long shutdown waits for queued orders to be processed.
+     */
+    @Autowired
+    public OrderIntakeService(BulkSalesService bulkSalesService,
+                              MeterRegistry meterRegistry,
+                              @Value("${orderIntake.queueCapacity:1000}") int queueCapacity,
+                              @Value("${orderIntake.workers:4}") int workerCount,
+                              @Value("${orderIntake.batchSize:50}") int batchSize,
+                              @Value("${orderIntake.statusMaximumSize:100000}") long statusMaximumSize,
+                              @Value("${orderIntake.statusTtl:1h}") Duration statusTtl,
+                              @Value("${orderIntake.shutdownTimeout:30s}") Duration shutdownTimeout) {
+        this.bulkSalesService = bulkSalesService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaximumSize)
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.rejections = Counter.builder("sales.intake.rejected")
+                .description("Orders rejected because the intake queue was full")
+                .register(meterRegistry);
+        Gauge.builder("sales.intake.queue.size", queue, BlockingQueue::size)
+                .description("Orders waiting to be processed")
+                .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet()));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Validates an order and queues it for processing.
+     *
+     * @param order The order, including the userId and a list of vehicles.
+     * @return The status of the queued order, or null if the queue is full.
+     * @throws IllegalArgumentException If the order is invalid.
+     */
+    public OrderStatus submit(SaleOrderRequest order) {
+        order.validate();
+        LocalDateTime now = LocalDateTime.now();
+        OrderStatus status = new OrderStatus(UUID.randomUUID().toString(), State.QUEUED, null, now, now);
+        // Recorded before queueing, so a worker never updates a state that does not exist yet
+        statuses.put(status.orderId(), status);
+        if (!running || !queue.offer(new QueuedOrder(status.orderId(), order))) {
+            statuses.invalidate(status.orderId());
+            rejections.increment();
+            return null;
+        }
+        return status;
+    }
+
+    /**
+     * Returns the state of an accepted order.
+     *
+     * @param orderId The handle returned when the order was accepted.
+     * @return The order's status, or null if the handle is unknown or its status has expired.
+     */
+    public OrderStatus getStatus(String orderId) {
+        return statuses.getIfPresent(orderId);
+    }
+
+    private void drain() {
+        List<QueuedOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedOrder first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.atError().addKeyValue("orders", batch.size()).setCause(e).log("Order batch failed");
+                for (QueuedOrder order : batch) {
+                    update(order.orderId(), State.FAILED, "Processing error: " + e.getMessage());
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void process(List<QueuedOrder> batch) {
+        for (QueuedOrder order : batch) {
+            update(order.orderId(), State.PROCESSING, null);
+        }
+        Map<String, Object> response = bulkSalesService.addSalesBulk(batch.stream().map(QueuedOrder::order).iterator());
+        // Bulk results are reported in input order
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+        for (int i = 0; i < batch.size(); i++) {
+            Map<String, Object> result = results.get(i);
+            State state = "success".equals(result.get("status")) ? State.SUCCEEDED : State.FAILED;
+            update(batch.get(i).orderId(), state, (String) result.get("message"));
+        }
+    }
+
+    private void update(String orderId, State state, String message) {
+        statuses.asMap().computeIfPresent(orderId, (id, status) -> status.next(state, message));
+    }
+
+    /**
+     * Stops accepting orders and gives the workers {@code orderIntake.shutdownTimeout} to finish the queue.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+            log.atWarn().addKeyValue("orders", queue.size()).log("Order intake stopped with orders still queued");
+        }
+    }
+}
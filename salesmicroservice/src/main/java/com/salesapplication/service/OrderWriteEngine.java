@@ -0,0 +1,29 @@
+package com.salesapplication.service;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.exception.VehicleNotFoundException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+
+import java.util.List;
+
+/**
+ * Writes the sale and sale detail rows of one order and takes the vehicles out of stock.
+ * Selected by {@code salesWrite.engine}: {@code procedure} (the default) calls {@code insert_sale_records},
+ * {@code jdbc} does the same work in Java as one batched transaction.
+ * Implementations join whatever transaction the caller has open.
+ */
+public interface OrderWriteEngine {
+
+    /**
+     * Inserts the sale and its details for one order.
+     *
+     * @param userId The ID of the user making the purchase.
+     * @param vehicles The vehicles and counts being purchased.
+     * @return The sale as written, with its ID, total amount and date.
+     * @throws VehicleNotFoundException If a vehicle in the order does not exist.
+     * @throws InsufficientInventoryException If a vehicle does not have enough stock for the order.
+     * @throws RuntimeException If the order could not be written for another reason.
+     */
+    SalesDTO insertSale(int userId, List<VehiclePurchaseRequest> vehicles);
+}
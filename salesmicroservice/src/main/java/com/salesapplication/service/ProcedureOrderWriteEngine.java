@@ -0,0 +1,75 @@
+package com.salesapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.repository.SalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Order write engine that hands the order to the {@code insert_sale_records} stored procedure as JSON.
+ * The procedure answers with its status and the ID of the sale it wrote, by which the sale is read back.
+ */
+@Component
+@ConditionalOnProperty(name = "salesWrite.engine", havingValue = "procedure", matchIfMissing = true)
+public class ProcedureOrderWriteEngine implements OrderWriteEngine {
+
+    private final SalesRepository salesRepository;
+
+    private final SaleStageTimers stageTimers;
+
+    // Immutable and thread-safe, so one writer serves every order
+    private final ObjectWriter vehiclesWriter;
+
+    /**
+     * Constructor for ProcedureOrderWriteEngine.
+     *
+     * @param salesRepository The repository used to call the stored procedure.
+     * @param objectMapper The application ObjectMapper the vehicles writer is derived from.
+     * @param stageTimers The timers for the JSON encoding and procedure call stages.
+     */
+    @Autowired
+    public ProcedureOrderWriteEngine(SalesRepository salesRepository, ObjectMapper objectMapper, SaleStageTimers stageTimers) {
+        this.salesRepository = salesRepository;
+        this.stageTimers = stageTimers;
+        this.vehiclesWriter = objectMapper.writerFor(new TypeReference<List<VehiclePurchaseRequest>>() {});
+    }
+
+    @Override
+    public SalesDTO insertSale(int userId, List<VehiclePurchaseRequest> vehicles) {
+        String vehicleDataJson = stageTimers.jsonEncode().record(() -> toJson(vehicles));
+
+        // Call the stored procedure to insert sales records and retrieve error_message and the new sale ID
+        SalesRepository.SaleRecordsResult result =
+                stageTimers.procedureCall().record(() -> salesRepository.insertSaleRecords(userId, vehicleDataJson));
+        String error_message = result == null ? null : result.getErrorMessage();
+        if (error_message != null && !error_message.isEmpty() && !error_message.equals("success")) {
+            if (error_message.contains("Insufficient inventory")) {
+                throw new InsufficientInventoryException(error_message);
+            }
+            throw new RuntimeException(error_message);
+        }
+        Integer saleId = result == null ? null : result.getSaleId();
+        if (saleId == null) {
+            throw new RuntimeException("insert_sale_records reported success without a sale ID");
+        }
+        return salesRepository.findDtoById(saleId)
+                .orElseThrow(() -> new RuntimeException("Sale written by insert_sale_records not found"));
+    }
+
+    private String toJson(List<VehiclePurchaseRequest> vehicles) {
+        try {
+            return vehiclesWriter.writeValueAsString(vehicles);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error converting vehicles to JSON: " + e.getMessage(), e);
+        }
+    }
+}
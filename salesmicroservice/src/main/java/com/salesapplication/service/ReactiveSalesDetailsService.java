@@ -0,0 +1,100 @@
+package com.salesapplication.service;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.repository.ReactiveSalesDetailsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link SalesDetailsService}, used when the application runs as a reactive web application.
+ * Responses keep the "success"/"error" map shape of the blocking service, with details as SalesDetailsDTO.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesDetailsService {
+
+    private final ReactiveSalesDetailsRepository salesDetailsRepository;
+
+    @Autowired
+    public ReactiveSalesDetailsService(ReactiveSalesDetailsRepository salesDetailsRepository) {
+        this.salesDetailsRepository = salesDetailsRepository;
+    }
+
+    /**
+     * Creates a new sales detail record.
+     *
+     * @param salesDetails The sales detail to be added.
+     * @return A Mono with a map containing the success or error message.
+     */
+    public Mono<Map<String, String>> createSalesDetails(SalesDetailsDTO salesDetails) {
+        return salesDetailsRepository.insert(salesDetails)
+                .map(id -> Map.of("success", "Sales Details Added Successfully: " + id))
+                .onErrorResume(e -> Mono.just(Map.of("error", "Sales Details not added: " + e.getMessage())));
+    }
+
+    /**
+     * Streams all sales detail records.
+     *
+     * @return A Flux of SalesDetailsDTO objects that emits rows as the subscriber requests them.
+     */
+    public Flux<SalesDetailsDTO> getAllSalesDetails() {
+        return salesDetailsRepository.findAll();
+    }
+
+    /**
+     * Retrieves a sales detail record by its ID.
+     *
+     * @param id The ID of the sales detail.
+     * @return A Mono with a map containing the sales detail or an error message.
+     */
+    public Mono<Map<String, Object>> getSalesDetailsById(int id) {
+        return salesDetailsRepository.findById(id)
+                .<Map<String, Object>>map(details -> Map.of("success", details))
+                .defaultIfEmpty(Map.of("error", "Sales Details with ID " + id + " not found"))
+                .onErrorResume(e -> Mono.just(Map.of("error", "Could not fetch sales details: " + e.getMessage())));
+    }
+
+    /**
+     * Streams the sales detail records of a sale.
+     *
+     * @param saleId The ID of the sale.
+     * @return A Flux of SalesDetailsDTO objects that emits rows as the subscriber requests them.
+     */
+    public Flux<SalesDetailsDTO> getSalesDetailsBySaleId(int saleId) {
+        return salesDetailsRepository.findBySaleId(saleId);
+    }
+
+    /**
+     * Updates a sales detail record.
+     *
+     * @param id The ID of the sales detail to be updated.
+     * @param updatedSalesDetails The updated sales detail.
+     * @return A Mono with a map containing the success or error message.
+     */
+    public Mono<Map<String, String>> updateSalesDetails(int id, SalesDetailsDTO updatedSalesDetails) {
+        return salesDetailsRepository.update(id, updatedSalesDetails)
+                .map(updated -> updated > 0
+                        ? Map.of("success", "Sales Details Updated Successfully: " + id)
+                        : Map.of("error", "Sales Details with ID " + id + " not found"))
+                .onErrorResume(e -> Mono.just(Map.of("error", "Sales Details not updated: " + e.getMessage())));
+    }
+
+    /**
+     * Deletes a sales detail record by its ID.
+     *
+     * @param id The ID of the sales detail to be deleted.
+     * @return A Mono with a map containing the success or error message.
+     */
+    public Mono<Map<String, String>> deleteSalesDetails(int id) {
+        return salesDetailsRepository.deleteById(id)
+                .map(deleted -> deleted > 0
+                        ? Map.of("success", "Sales Details Deleted Successfully")
+                        : Map.of("error", "Sales Details with ID " + id + " not found"))
+                .onErrorResume(e -> Mono.just(Map.of("error", "Sales Details not deleted: " + e.getMessage())));
+    }
+}
@@ -0,0 +1,222 @@
+package com.salesapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.exception.UserNotFoundException;
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.UserSalesSummary;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.repository.ReactiveSalesRepository;
+import com.salesapplication.repository.ReactiveUserSalesSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link SalesService}, used when the application runs as a reactive web application.
+ * Database access goes through R2DBC and user lookups through {@link ReactiveUserLookup}, so no call blocks;
+ * the JDBC rollup refresh after an edit runs on the bounded elastic scheduler.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSalesService {
+
+    private final ReactiveSalesRepository salesRepository;
+
+    private final ReactiveUserSalesSummaryRepository summaryRepository;
+
+    private final ReactiveUserLookup userLookup;
+
+    private final SalesAnalyticsService analyticsService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectWriter vehiclesWriter;
+
+    private final int salesPageMaxSize;
+
+    @Autowired
+    public ReactiveSalesService(ReactiveSalesRepository salesRepository,
+                                ReactiveUserSalesSummaryRepository summaryRepository,
+                                ReactiveUserLookup userLookup,
+                                SalesAnalyticsService analyticsService,
+                                TransactionalOperator transactionalOperator,
+                                ObjectMapper objectMapper,
+                                @Value("${salesPageMaxSize:1000}") int salesPageMaxSize) {
+        this.salesRepository = salesRepository;
+        this.summaryRepository = summaryRepository;
+        this.userLookup = userLookup;
+        this.analyticsService = analyticsService;
+        this.transactionalOperator = transactionalOperator;
+        this.vehiclesWriter = objectMapper.writerFor(new TypeReference<List<VehiclePurchaseRequest>>() {});
+        this.salesPageMaxSize = salesPageMaxSize;
+    }
+
+    /**
+     * Streams all sales records in sale ID order.
+     *
+     * @return A Flux of SalesDTO objects that emits rows as the subscriber requests them.
+     */
+    public Flux<SalesDTO> getAllSales() {
+        return salesRepository.findAll();
+    }
+
+    /**
+     * Retrieves one keyset page of sales records, ordered by sale ID.
+     *
+     * @param afterSaleId Only sales with an ID greater than this are returned; use 0 for the first page.
+     * @param size The maximum number of records to return, capped at {@code salesPageMaxSize}.
+     * @return A Flux of SalesDTO objects for the requested page.
+     */
+    public Flux<SalesDTO> getSalesPage(int afterSaleId, int size) {
+        if (size <= 0) {
+            return Flux.error(new IllegalArgumentException("Page size must be greater than 0"));
+        }
+        return salesRepository.findPageAfter(afterSaleId, Math.min(size, salesPageMaxSize));
+    }
+
+    /**
+     * Retrieves a specific sale record by its ID.
+     *
+     * @param id The ID of the sale record.
+     * @return A Mono with the SalesDTO, empty if not found.
+     */
+    public Mono<SalesDTO> getSaleById(int id) {
+        return salesRepository.findById(id);
+    }
+
+    /**
+     * Updates the price of an existing sale record, adjusting the buyer's sales summary in the same transaction
+     * and re-rolling the sale day's rollup once it commits.
+     *
+     * @param id The ID of the sale record to be updated.
+     * @param salesDTO The new data for the sale record.
+     * @return A Mono with the updated SalesDTO, failing with IllegalArgumentException if the sale does not exist.
+     */
+    public Mono<SalesDTO> updateSale(int id, SalesDTO salesDTO) {
+        return salesRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Sale with ID " + id + " not found")))
+                .flatMap(existing -> salesRepository.updateSalePrice(id, salesDTO.getSalePrice())
+                        .then(summaryRepository.adjustTotalSpend(existing.getUserId(), salesDTO.getSalePrice() - existing.getSalePrice()))
+                        .then(salesRepository.findById(id)))
+                .as(transactionalOperator::transactional)
+                .flatMap(updated -> saleDayChanged(updated).thenReturn(updated));
+    }
+
+    /**
+     * Deletes a sale record by its ID and removes it from the buyer's sales summary in the same transaction,
+     * re-rolling the sale day's rollup once it commits.
+     *
+     * @param id The ID of the sale record to be deleted.
+     * @return A Mono with true if the sale record was deleted, false otherwise.
+     */
+    public Mono<Boolean> deleteSaleById(int id) {
+        return salesRepository.findById(id)
+                .flatMap(existing -> salesRepository.deleteById(id)
+                        .flatMap(deleted -> deleted > 0
+                                ? summaryRepository.removeSale(existing.getUserId(), existing.getSalePrice()).thenReturn(existing)
+                                : Mono.<SalesDTO>empty()))
+                .as(transactionalOperator::transactional)
+                .flatMap(deleted -> saleDayChanged(deleted).thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    // The rollups are written over JDBC, so they cannot join the R2DBC transaction; the day is re-rolled
+    // after it commits, on a thread that may block, as the servlet engine does for detail edits
+    private Mono<Void> saleDayChanged(SalesDTO sale) {
+        return Mono.fromRunnable(() -> analyticsService.saleDaysChanged(List.of(sale.getSaleDate().toLocalDate())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * Retrieves the purchase summary of a user from the per-user summary table.
+     *
+     * @param userId The ID of the user.
+     * @return A Mono with the UserSalesSummary, empty if the user has no sales.
+     */
+    public Mono<UserSalesSummary> getUserSalesSummary(int userId) {
+        return summaryRepository.findById(userId);
+    }
+
+    /**
+     * Streams the sales records of a user after checking the user exists.
+     *
+     * @param userId The ID of the user whose sales records are to be retrieved.
+     * @return A Flux of SalesDTO objects, failing with IllegalArgumentException if the user is unknown.
+     */
+    public Flux<SalesDTO> getSalesByUserId(int userId) {
+        return userLookup.getUser(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)))
+                .thenMany(salesRepository.findByUserId(userId));
+    }
+
+    /**
+     * Adds sales records through the {@code insert_sale_records} stored procedure.
+     *
+     * @param saleDetails The order, including the userId and a list of vehicles.
+     * @return A Mono with the same response map shape as {@link SalesService#addSales}.
+     */
+    public Mono<Map<String, Object>> addSales(SaleOrderRequest saleDetails) {
+        return Mono.fromRunnable(saleDetails::validate)
+                .then(userLookup.getUser(saleDetails.getUserId() == null ? 0 : saleDetails.getUserId()))
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(saleDetails.getUserId())))
+                .flatMap(user -> writeSale(saleDetails.getUserId(), toJson(saleDetails.getVehicles())))
+                .map(written -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", "success");
+                    response.put("message", "Sales processed successfully");
+                    response.put("sale Details ", saleDetails);
+                    return response;
+                })
+                .onErrorResume(e -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", "error");
+                    response.put("message", (e instanceof IllegalArgumentException ? "Invalid input: " : "Processing error: ") + e.getMessage());
+                    return Mono.just(response);
+                });
+    }
+
+    // Runs the procedure and counts the new sale in the buyer's summary as one transaction
+    private Mono<Boolean> writeSale(int userId, String vehicleDataJson) {
+        return salesRepository.insertSaleRecords(userId, vehicleDataJson)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("insert_sale_records did not answer")))
+                .flatMap(result -> {
+                    String errorMessage = result.errorMessage();
+                    if (errorMessage != null && !errorMessage.isEmpty() && !errorMessage.equals("success")) {
+                        return Mono.error(errorMessage.contains("Insufficient inventory")
+                                ? new InsufficientInventoryException(errorMessage)
+                                : new RuntimeException(errorMessage));
+                    }
+                    if (result.saleId() == null) {
+                        return Mono.error(new RuntimeException("insert_sale_records reported success without a sale ID"));
+                    }
+                    return salesRepository.findById(result.saleId())
+                            .switchIfEmpty(Mono.error(() -> new RuntimeException("Sale written by insert_sale_records not found")))
+                            .flatMap(sale -> summaryRepository.addSale(userId, sale.getSalePrice(), sale.getSaleDate()))
+                            .thenReturn(true);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private String toJson(List<VehiclePurchaseRequest> vehicles) {
+        try {
+            return vehiclesWriter.writeValueAsString(vehicles);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error converting vehicles to JSON: " + e.getMessage(), e);
+        }
+    }
+}
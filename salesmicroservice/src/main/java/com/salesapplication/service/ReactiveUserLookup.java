@@ -0,0 +1,89 @@
+package com.salesapplication.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.salesapplication.exception.UserServiceException;
+import com.vehicleinventorysystem.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link UserLookupCache} for the reactive engine.
+ * Uses the same {@code userCache.*} settings; concurrent misses for one user ID share a single in-flight call.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserLookup {
+
+    private final WebClient webClient;
+
+    private final String userServiceUrl;
+
+    private final Duration readTimeout;
+
+    private final AsyncCache<Integer, Optional<User>> cache;
+
+    /**
+     * Constructor for ReactiveUserLookup.
+     *
+     * @param webClient The client used to call the user service.
+     * @param meterRegistry The registry that receives the cache metrics.
+     * @param userServiceUrl The base URL of the user service.
+     * @param maximumSize The maximum number of user IDs kept in the cache.
+     * @param ttl How long a found user is cached.
+     * @param negativeTtl How long a "not found" answer is cached.
+     * @param readTimeout How long to wait for the user service to answer.
+     */
+    @Autowired
+    public ReactiveUserLookup(WebClient webClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${userServiceUrl}") String userServiceUrl,
+                              @Value("${userCache.maximumSize:10000}") long maximumSize,
+                              @Value("${userCache.ttl:5m}") Duration ttl,
+                              @Value("${userCache.negativeTtl:30s}") Duration negativeTtl,
+                              @Value("${httpClient.readTimeout:5s}") Duration readTimeout) {
+        this.webClient = webClient;
+        this.userServiceUrl = userServiceUrl;
+        this.readTimeout = readTimeout;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UserLookupCache.FoundOrMissingExpiry(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "reactiveUserLookup");
+    }
+
+    /**
+     * Returns the user with the given ID, calling the user service only on a cache miss.
+     *
+     * @param userId The ID of the user to be fetched.
+     * @return A Mono with the User, empty if the user service does not know the ID,
+     *         or failing with a UserServiceException if the user service could not be reached.
+     */
+    public Mono<User> getUser(int userId) {
+        return Mono.fromFuture(() -> cache.get(userId, (key, executor) -> fetch(key).toFuture()))
+                .flatMap(Mono::justOrEmpty)
+                .onErrorMap(e -> new UserServiceException("Failed to fetch user data", e));
+    }
+
+    private Mono<Optional<User>> fetch(int userId) {
+        return webClient.get()
+                .uri(userServiceUrl + userId)
+                .retrieve()
+                .bodyToMono(User.class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()))
+                .timeout(readTimeout);
+    }
+}
@@ -0,0 +1,88 @@
+package com.salesapplication.service;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import com.salesapplication.repository.UserSalesSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes one order through the configured {@link OrderWriteEngine}.
+ * Shared by the single-order and bulk write paths; it joins whatever transaction the caller has open.
+ */
+@Component
+public class SaleRecordWriter {
+
+    private final OrderWriteEngine orderWriteEngine;
+
+    private final UserSalesSummaryRepository summaryRepository;
+
+    private final VehicleAdmissionControl vehicleAdmission;
+
+    private final VehicleAvailabilityCache vehicleAvailability;
+
+    /**
+     * Constructor for SaleRecordWriter.
+     *
+     * @param orderWriteEngine The engine that inserts the sale and its details.
+     * @param summaryRepository The repository keeping the buyer's sales summary in step with the new sale.
+     * @param vehicleAdmission The per-vehicle admission control orders pass before reaching the engine.
+     * @param vehicleAvailability The local available counts orders are checked against.
+     */
+    @Autowired
+    public SaleRecordWriter(OrderWriteEngine orderWriteEngine, UserSalesSummaryRepository summaryRepository,
+                            VehicleAdmissionControl vehicleAdmission, VehicleAvailabilityCache vehicleAvailability) {
+        this.orderWriteEngine = orderWriteEngine;
+        this.summaryRepository = summaryRepository;
+        this.vehicleAdmission = vehicleAdmission;
+        this.vehicleAvailability = vehicleAvailability;
+    }
+
+    /**
+     * Inserts the sale and its details for one order, and counts it in the buyer's sales summary.
+     * The order's vehicles stay locked against other orders until the caller's transaction completes.
+     * The caller preloads the vehicles' available counts through {@link VehicleAvailabilityCache#preload}
+     * before opening its transaction; counts it did not load are not checked locally.
+     *
+     * @param userId The ID of the user making the purchase.
+     * @param vehicles The vehicles and counts being purchased.
+     * @throws InsufficientInventoryException If a vehicle is out of stock or short, as known locally or reported by the engine.
+     * @throws RuntimeException If the vehicles are busy or the engine reports another error.
+     */
+    public void write(int userId, List<VehiclePurchaseRequest> vehicles) {
+        try (VehicleAdmissionControl.Admission admission = vehicleAdmission.admit(vehicles)) {
+            writeAdmitted(userId, vehicles);
+        }
+    }
+
+    /**
+     * Writes one order as {@link #write} does, for a caller that already holds the admission of its vehicles
+     * until its transaction completes. Vehicles found sold out since the admission are still rejected.
+     *
+     * @param userId The ID of the user making the purchase.
+     * @param vehicles The vehicles and counts being purchased.
+     * @throws InsufficientInventoryException If a vehicle is out of stock or short, as known locally or reported by the engine.
+     * @throws RuntimeException If the engine reports another error.
+     */
+    public void writeAdmitted(int userId, List<VehiclePurchaseRequest> vehicles) {
+        // Checked under the vehicle locks, so no other order on this node changes the counts meanwhile
+        vehicleAdmission.checkInStock(vehicles);
+        vehicleAvailability.checkAvailable(vehicles);
+
+        SalesDTO sale;
+        try {
+            sale = orderWriteEngine.insertSale(userId, vehicles);
+        } catch (InsufficientInventoryException e) {
+            vehicleAdmission.rejectedForInventory(vehicles, e.getMessage());
+            vehicleAvailability.invalidate(vehicles);
+            throw e;
+        }
+        // Not through UserSalesSummaryService: a failure passing a @Transactional proxy would mark the whole
+        // transaction rollback-only, spoiling the group or chunk this order's savepoint is meant to protect
+        summaryRepository.addSale(sale.getUserId(), sale.getSalePrice(), sale.getSaleDate());
+        vehicleAvailability.decrementAfterCommit(vehicles);
+    }
+}
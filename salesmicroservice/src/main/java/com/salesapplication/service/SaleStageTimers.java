@@ -0,0 +1,71 @@
+package com.salesapplication.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers for the stages of writing a sale, published as {@code sales.write.stage} tagged by {@code stage}.
+ * Shared by the single-order and bulk write paths so both show up in the same series.
+ */
+@Component
+public class SaleStageTimers {
+
+    private final Timer userLookup;
+
+    private final Timer jsonEncode;
+
+    private final Timer procedureCall;
+
+    private final Timer jdbcWrite;
+
+    private final Timer responseBuild;
+
+    /**
+     * Constructor for SaleStageTimers.
+     *
+     * @param meterRegistry The registry that receives the stage timers.
+     */
+    @Autowired
+    public SaleStageTimers(MeterRegistry meterRegistry) {
+        this.userLookup = stage(meterRegistry, "user_lookup");
+        this.jsonEncode = stage(meterRegistry, "json_encode");
+        this.procedureCall = stage(meterRegistry, "procedure_call");
+        this.jdbcWrite = stage(meterRegistry, "jdbc_write");
+        this.responseBuild = stage(meterRegistry, "response_build");
+    }
+
+    /** @return The timer around checking the buyer with the user service, cache hits included. */
+    public Timer userLookup() {
+        return userLookup;
+    }
+
+    /** @return The timer around encoding the vehicles as the procedure's JSON argument. */
+    public Timer jsonEncode() {
+        return jsonEncode;
+    }
+
+    /** @return The timer around the {@code insert_sale_records} call. */
+    public Timer procedureCall() {
+        return procedureCall;
+    }
+
+    /** @return The timer around the Java order write, from locking the vehicles to the details batch. */
+    public Timer jdbcWrite() {
+        return jdbcWrite;
+    }
+
+    /** @return The timer around building the response map. */
+    public Timer responseBuild() {
+        return responseBuild;
+    }
+
+    private static Timer stage(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("sales.write.stage")
+                .description("Time spent in one stage of writing a sale")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,294 @@
+package com.salesapplication.service;
+
+import com.salesapplication.dto.SalesRollupDTO;
+import com.salesapplication.repository.SalesRollupRepository;
+import com.salesapplication.repository.SalesRollupRepository.Dimension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service class answering time-bucketed sales analytics from the daily rollups.
+ * <p>
+ * A day is closed once {@code salesRollup.closeDelay} has passed after its end. Closed days are rolled
+ * up into {@code sales_rollup} by a scheduled job that only processes days after the last rolled-up one,
+ * and are rewritten when a sale on them is edited. Days not rolled up yet, normally just today, are
+ * aggregated live, so the cost of a query depends on the length of the range and not on the history.
+ * Weeks (ISO, starting on Monday) and months are sums of their days.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    /**
+     * The size of the buckets returned by the analytics endpoint.
+     */
+    public enum Granularity {
+        DAY,
+        WEEK,
+        MONTH;
+
+        /**
+         * @param day A day inside the bucket.
+         * @return The first day of the bucket containing the given day.
+         */
+        public LocalDate bucketStart(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+
+        /**
+         * Parses a granularity as accepted by the analytics endpoint.
+         *
+         * @param value "day", "week" or "month", in any case.
+         * @return The matching granularity.
+         * @throws IllegalArgumentException If the value is not a known granularity.
+         */
+        public static Granularity of(String value) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(value)) {
+                    return granularity;
+                }
+            }
+            throw new IllegalArgumentException("Unknown granularity: " + value);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    private final SalesRollupRepository rollupRepository;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final Duration closeDelay;
+
+    private final int chunkDays;
+
+    private final int maxRangeDays;
+
+    /**
+     * Constructor for SalesAnalyticsService.
+     *
+     * @param rollupRepository The repository for the rollup table and the live aggregates.
+     * @param transactionManager The transaction manager used for each chunk of days rolled up.
+     * @param closeDelay How long after midnight a day is still open for late commits.
+     * @param chunkDays The number of days rolled up per transaction.
+     * @param maxRangeDays The longest range, in days, one analytics query may cover.
+     */
+    @Autowired
+    public SalesAnalyticsService(SalesRollupRepository rollupRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${salesRollup.closeDelay:5m}") Duration closeDelay,
+                                 @Value("${salesRollup.chunkDays:31}") int chunkDays,
+                                 @Value("${salesRollup.maxRangeDays:1830}") int maxRangeDays) {
+        this.rollupRepository = rollupRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.closeDelay = closeDelay;
+        this.chunkDays = chunkDays;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Returns sales aggregated per bucket over a range of days, ordered by bucket and dimension ID.
+     * Buckets at the edges of the range only include the days inside it.
+     *
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @param granularity The size of the buckets.
+     * @param dimension The breakdown within each bucket.
+     * @param dimensionId Only this vehicle or user ID, or null for all of them.
+     * @return One SalesRollupDTO per bucket and dimension ID that had sales.
+     * @throws IllegalArgumentException If the range is empty or longer than {@code salesRollup.maxRangeDays}.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesRollupDTO> getSalesAnalytics(LocalDate from, LocalDate to, Granularity granularity,
+                                                  Dimension dimension, Integer dimensionId) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The 'to' date must not be before the 'from' date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        LocalDate end = to.plusDays(1);
+        LocalDate lastRolledUp = rollupRepository.findLastRolledUpDay();
+        LocalDate liveFrom = lastRolledUp == null ? from : max(from, lastRolledUp.plusDays(1));
+
+        List<SalesRollupDTO> days = new ArrayList<>();
+        if (liveFrom.isAfter(from)) {
+            days.addAll(rollupRepository.findRollups(dimension, dimensionId, from, min(liveFrom, end)));
+        }
+        if (liveFrom.isBefore(end)) {
+            for (SalesRollupDTO day : rollupRepository.aggregate(dimension, liveFrom, end)) {
+                if (dimensionId == null || day.getDimensionId() == dimensionId) {
+                    days.add(day);
+                }
+            }
+        }
+        return toBuckets(days, granularity);
+    }
+
+    /**
+     * Rolls up every closed day after the last rolled-up one, {@code salesRollup.chunkDays} days per
+     * transaction. On the first run this backfills from the oldest sale.
+     *
+     * @return The number of days rolled up.
+     */
+    @Scheduled(initialDelayString = "${salesRollup.initialDelay:1m}", fixedDelayString = "${salesRollup.refreshInterval:10m}")
+    public int rollUpClosedDays() {
+        LocalDate lastRolledUp = rollupRepository.findLastRolledUpDay();
+        LocalDate from = lastRolledUp != null ? lastRolledUp.plusDays(1) : rollupRepository.findFirstSaleDay();
+        if (from == null) {
+            return 0;
+        }
+        int rolledUp = rollUp(from, lastClosedDay().plusDays(1));
+        if (rolledUp > 0) {
+            log.atInfo()
+                    .addKeyValue("from", from)
+                    .addKeyValue("days", rolledUp)
+                    .log("Sales rollup refreshed");
+        }
+        return rolledUp;
+    }
+
+    /**
+     * Rewrites the rollups of a range of closed days from the sales tables, for backfill or repair.
+     * Days in the range that are still open are left to the live aggregation.
+     *
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return The number of days rolled up.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The 'to' date must not be before the 'from' date");
+        }
+        return rollUp(from, min(to, lastClosedDay()).plusDays(1));
+    }
+
+    /**
+     * Re-rolls a day after one of its sales changed, if that day is already rolled up.
+     * Joins the caller's transaction, so the rollup commits or rolls back together with the edit.
+     *
+     * @param day The day of the edited sale.
+     */
+    @Transactional
+    public void dayChanged(LocalDate day) {
+        LocalDate lastRolledUp = rollupRepository.findLastRolledUpDay();
+        if (lastRolledUp != null && !day.isAfter(lastRolledUp)) {
+            rollupRepository.rollUp(day, day.plusDays(1));
+        }
+    }
+
+    /**
+     * Re-rolls the day of a sale after its details were written outside a transaction.
+     * A failure is logged rather than thrown, because the detail change has already committed;
+     * the day can be repaired with {@link #rebuild(LocalDate, LocalDate)}.
+     *
+     * @param saleId The ID of the sale whose details changed.
+     */
+    public void saleChanged(int saleId) {
+        salesChanged(List.of(saleId));
+    }
+
+    /**
+     * Re-rolls the days of several sales after their details were written, each day once.
+     * Failures are logged rather than thrown, as for {@link #saleChanged(int)}.
+     *
+     * @param saleIds The IDs of the sales whose details changed.
+     */
+    public void salesChanged(Collection<Integer> saleIds) {
+        try {
+            daysChanged(rollupRepository.findSaleDays(saleIds));
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .addKeyValue("sales", saleIds.size())
+                    .setCause(e)
+                    .log("Sales rollup not refreshed");
+        }
+    }
+
+    /**
+     * Re-rolls days after sales on them were written or deleted outside a JDBC transaction, such as by the
+     * reactive engine. Each day is re-rolled in its own transaction; failures are logged rather than thrown,
+     * as for {@link #saleChanged(int)}.
+     *
+     * @param days The days of the changed sales.
+     */
+    public void saleDaysChanged(Collection<LocalDate> days) {
+        try {
+            daysChanged(days);
+        } catch (RuntimeException e) {
+            log.atWarn()
+                    .addKeyValue("days", days.size())
+                    .setCause(e)
+                    .log("Sales rollup not refreshed");
+        }
+    }
+
+    private void daysChanged(Collection<LocalDate> days) {
+        for (LocalDate day : days) {
+            chunkTransaction.executeWithoutResult(status -> dayChanged(day));
+        }
+    }
+
+    private int rollUp(LocalDate from, LocalDate end) {
+        int days = 0;
+        for (LocalDate chunkFrom = from; chunkFrom.isBefore(end); ) {
+            LocalDate chunkFromDay = chunkFrom;
+            LocalDate chunkEnd = min(chunkFrom.plusDays(chunkDays), end);
+            chunkTransaction.executeWithoutResult(status -> rollupRepository.rollUp(chunkFromDay, chunkEnd));
+            days += (int) ChronoUnit.DAYS.between(chunkFrom, chunkEnd);
+            chunkFrom = chunkEnd;
+        }
+        return days;
+    }
+
+    private LocalDate lastClosedDay() {
+        return LocalDateTime.now().minus(closeDelay).toLocalDate().minusDays(1);
+    }
+
+    private static List<SalesRollupDTO> toBuckets(List<SalesRollupDTO> days, Granularity granularity) {
+        Map<LocalDate, Map<Integer, SalesRollupDTO>> buckets = new TreeMap<>();
+        for (SalesRollupDTO day : days) {
+            SalesRollupDTO bucket = buckets
+                    .computeIfAbsent(granularity.bucketStart(day.getBucket()), start -> new TreeMap<>())
+                    .computeIfAbsent(day.getDimensionId(),
+                            id -> new SalesRollupDTO(granularity.bucketStart(day.getBucket()), id, 0, 0, 0));
+            // A sale belongs to exactly one day, so per-day sale counts add up without double counting
+            bucket.setSaleCount(bucket.getSaleCount() + day.getSaleCount());
+            bucket.setUnits(bucket.getUnits() + day.getUnits());
+            bucket.setRevenue(bucket.getRevenue() + day.getRevenue());
+        }
+        List<SalesRollupDTO> result = new ArrayList<>();
+        buckets.values().forEach(bucket -> result.addAll(bucket.values()));
+        return result;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
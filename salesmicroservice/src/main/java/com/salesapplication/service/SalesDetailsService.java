@@ -1,8 +1,17 @@
 package com.salesapplication.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.salesapplication.config.SalesCacheConfig;
+import com.salesapplication.dto.CountMode;
+import com.salesapplication.dto.SalesCount;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
 import com.salesapplication.model.SalesDetails;
 import com.salesapplication.repository.SalesDetailsRepository;
 
@@ -19,14 +28,33 @@ public class SalesDetailsService {
 
     private final SalesDetailsRepository salesDetailsRepository;
 
+    private final Cache salesDetailsCache;
+
+    private final SalesAnalyticsService analyticsService;
+
+    private final int pageMaxSize;
+
+    private final int searchCountLimit;
+
     /**
      * Constructor for SalesDetailsService.
      * 
      * @param salesDetailsRepository The repository for sales details operations.
+     * @param cacheManager The cache manager holding the sales details by sale ID cache.
+     * @param analyticsService The service whose rollups are refreshed when details change.
+     * @param pageMaxSize The largest search page returned.
+     * @param searchCountLimit The number of matches a search counts exactly in estimate mode.
      */
     @Autowired
-    public SalesDetailsService(SalesDetailsRepository salesDetailsRepository) {
+    public SalesDetailsService(SalesDetailsRepository salesDetailsRepository, CacheManager cacheManager,
+                               SalesAnalyticsService analyticsService,
+                               @Value("${salesPageMaxSize:1000}") int pageMaxSize,
+                               @Value("${salesSearch.countLimit:10000}") int searchCountLimit) {
         this.salesDetailsRepository = salesDetailsRepository;
+        this.salesDetailsCache = cacheManager.getCache(SalesCacheConfig.SALES_DETAILS_BY_SALE_ID);
+        this.analyticsService = analyticsService;
+        this.pageMaxSize = pageMaxSize;
+        this.searchCountLimit = searchCountLimit;
     }
 
     /**
@@ -39,8 +67,10 @@ public class SalesDetailsService {
         Map<String, String> response = new HashMap<>();
         try {
             SalesDetails createdSalesDetails = salesDetailsRepository.save(salesDetails);
+            evictSale(createdSalesDetails);
             response.put("success", "Sales Details Added Successfully: " + createdSalesDetails.getSaleDetailId());
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Sales Details not added: " + e.getMessage());
         }
         return response;
@@ -49,14 +79,17 @@ public class SalesDetailsService {
     /**
      * Retrieves all sales details records.
      * 
+     * @param expand Whether to return the full records with their sale and vehicle instead of flat DTOs.
      * @return A map containing a list of all sales details or an error message.
      */
-    public Map<String, Object> getAllSalesDetails() {
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAllSalesDetails(boolean expand) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<SalesDetails> allSalesDetails = salesDetailsRepository.findAll();
+            List<?> allSalesDetails = expand ? salesDetailsRepository.findAllExpanded() : salesDetailsRepository.findAllDtos();
             response.put("success", allSalesDetails);
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Could not fetch sales details: " + e.getMessage());
         }
         return response;
@@ -66,18 +99,21 @@ public class SalesDetailsService {
      * Retrieves a sales detail record by its ID.
      * 
      * @param id The ID of the sales detail.
+     * @param expand Whether to return the full record with its sale and vehicle instead of a flat DTO.
      * @return A map containing the sales detail or an error message.
      */
-    public Map<String, Object> getSalesDetailsById(int id) {
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSalesDetailsById(int id, boolean expand) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Optional<SalesDetails> salesDetails = salesDetailsRepository.findById(id);
+            Optional<?> salesDetails = expand ? salesDetailsRepository.findExpandedById(id) : salesDetailsRepository.findDtoById(id);
             if (salesDetails.isPresent()) {
                 response.put("success", salesDetails.get());
             } else {
                 response.put("error", "Sales Details with ID " + id + " not found");
             }
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Could not fetch sales details: " + e.getMessage());
         }
         return response;
@@ -85,25 +121,77 @@ public class SalesDetailsService {
 
     /**
      * Retrieves sales detail records by sale ID.
+     * Non-empty flat results are served from the {@value SalesCacheConfig#SALES_DETAILS_BY_SALE_ID} cache after the first read.
      * 
      * @param saleId The ID of the sale.
+     * @param expand Whether to return the full records with their sale and vehicle instead of flat DTOs.
      * @return A map containing a list of sales details or an error message.
      */
-    public Map<String, Object> getSalesDetailsBySaleId(int saleId) {
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSalesDetailsBySaleId(int saleId, boolean expand) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<SalesDetails> salesDetails = salesDetailsRepository.findBySale_SaleId(saleId);
+            List<?> salesDetails = expand ? salesDetailsRepository.findBySale_SaleId(saleId) : findSalesDetailsBySaleId(saleId);
             if (!salesDetails.isEmpty()) {
                 response.put("success", salesDetails);
             } else {
                 response.put("error", "Sales Details with Sale ID " + saleId + " not found");
             }
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Could not fetch sales details: " + e.getMessage());
         }
         return response;
     }
 
+    /**
+     * Searches sales details by the date range, total and buyer of their sale and by vehicle, one keyset page
+     * at a time in (saleId, saleDetailId) order.
+     * 
+     * @param criteria The filters to apply.
+     * @param afterSaleId The sale ID of the last record of the previous page; 0 for the first page.
+     * @param afterSaleDetailId The sale detail ID of the last record of the previous page.
+     * @param size The maximum number of records to return, capped at {@code salesPageMaxSize}.
+     * @return A list of SalesDetailsDTO objects for the requested page.
+     * @throws IllegalArgumentException If the page size is not positive or the criteria ranges are inverted.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesDetailsDTO> searchSalesDetails(SalesSearchCriteria criteria, int afterSaleId, int afterSaleDetailId,
+                                                    int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        criteria.validate();
+        try {
+            return salesDetailsRepository.search(criteria, afterSaleId, afterSaleDetailId, Math.min(size, pageMaxSize));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search sales details", e);
+        }
+    }
+
+    /**
+     * Counts the sales details matching a search. In {@link CountMode#ESTIMATE} mode at most
+     * {@code salesSearch.countLimit} + 1 sale dates are read in (saleId, saleDetailId) order, which follows
+     * the sale dates, and extrapolated by {@link SalesCount#fromSaleDates}.
+     * 
+     * @param criteria The filters to apply.
+     * @param mode How to count; must not be {@link CountMode#NONE}.
+     * @return The count, and whether it is exact.
+     */
+    @Transactional(readOnly = true)
+    public SalesCount countSalesDetails(SalesSearchCriteria criteria, CountMode mode) {
+        criteria.validate();
+        try {
+            if (mode == CountMode.EXACT) {
+                return new SalesCount(salesDetailsRepository.count(criteria), true);
+            }
+            return SalesCount.fromSaleDates(criteria,
+                    salesDetailsRepository.findSaleDates(criteria, searchCountLimit + 1), searchCountLimit);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to count sales details", e);
+        }
+    }
+
     /**
      * Updates a sales detail record.
      * 
@@ -114,14 +202,18 @@ public class SalesDetailsService {
     public Map<String, String> updateSalesDetails(int id, SalesDetails updatedSalesDetails) {
         Map<String, String> response = new HashMap<>();
         try {
-            if (!salesDetailsRepository.existsById(id)) {
+            Optional<SalesDetails> existingDetails = salesDetailsRepository.findById(id);
+            if (existingDetails.isEmpty()) {
                 response.put("error", "Sales Details with ID " + id + " not found");
                 return response;
             }
             updatedSalesDetails.setSaleDetailId(id);
             SalesDetails updatedDetails = salesDetailsRepository.save(updatedSalesDetails);
+            evictSale(existingDetails.get());
+            evictSale(updatedDetails);
             response.put("success", "Sales Details Updated Successfully: " + updatedDetails.getSaleDetailId());
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Sales Details not updated: " + e.getMessage());
         }
         return response;
@@ -136,15 +228,50 @@ public class SalesDetailsService {
     public Map<String, String> deleteSalesDetails(int id) {
         Map<String, String> response = new HashMap<>();
         try {
-            if (!salesDetailsRepository.existsById(id)) {
+            Optional<SalesDetails> existingDetails = salesDetailsRepository.findById(id);
+            if (existingDetails.isEmpty()) {
                 response.put("error", "Sales Details with ID " + id + " not found");
                 return response;
             }
             salesDetailsRepository.deleteById(id);
+            evictSale(existingDetails.get());
             response.put("success", "Sales Details Deleted Successfully");
         } catch (Exception e) {
+            SalesOutcome.of(e).record();
             response.put("error", "Sales Details not deleted: " + e.getMessage());
         }
         return response;
     }
+
+    /**
+     * Reads the details of a sale through the cache. Empty results are not cached, so details
+     * written later for a new sale ID are seen on the next read.
+     * 
+     * @param saleId The ID of the sale.
+     * @return An unmodifiable list of SalesDetailsDTO objects.
+     */
+    @SuppressWarnings("unchecked")
+    private List<SalesDetailsDTO> findSalesDetailsBySaleId(int saleId) {
+        Cache.ValueWrapper cached = salesDetailsCache.get(saleId);
+        if (cached != null) {
+            return (List<SalesDetailsDTO>) cached.get();
+        }
+        List<SalesDetailsDTO> salesDetails = List.copyOf(salesDetailsRepository.findDtosBySaleId(saleId));
+        if (!salesDetails.isEmpty()) {
+            salesDetailsCache.put(saleId, salesDetails);
+        }
+        return salesDetails;
+    }
+
+    /**
+     * Drops the cached details of the sale a detail record belongs to and refreshes that sale's rollup.
+     * 
+     * @param salesDetails The detail record that was written or deleted.
+     */
+    private void evictSale(SalesDetails salesDetails) {
+        if (salesDetails.getSale() != null) {
+            salesDetailsCache.evict(salesDetails.getSale().getSaleId());
+            analyticsService.saleChanged(salesDetails.getSale().getSaleId());
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package com.salesapplication.service;
+
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.exception.UserNotFoundException;
+import com.salesapplication.exception.UserServiceException;
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.SQLException;
+
+/**
+ * Outcome class of a sales request, added to the {@code http.server.requests} metrics as the {@code result} tag.
+ * Services record the outcome on the current request; requests without one are classified by HTTP status.
+ */
+public enum SalesOutcome {
+
+    SUCCESS("success"),
+    NOT_FOUND("not_found"),
+    INVALID_REQUEST("invalid_request"),
+    USER_NOT_FOUND("user_not_found"),
+    INSUFFICIENT_INVENTORY("insufficient_inventory"),
+    USER_SERVICE_ERROR("user_service_error"),
+    DB_ERROR("db_error"),
+    ERROR("error");
+
+    /** Request attribute holding the recorded outcome. */
+    public static final String ATTRIBUTE = SalesOutcome.class.getName();
+
+    private final String tagValue;
+
+    SalesOutcome(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String tagValue() {
+        return tagValue;
+    }
+
+    /**
+     * Classifies a failure by the first recognised exception in its cause chain.
+     *
+     * @param failure The exception that ended the request.
+     * @return The matching outcome, or {@link #ERROR} if none matches.
+     */
+    public static SalesOutcome of(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof UserNotFoundException) {
+                return USER_NOT_FOUND;
+            }
+            if (t instanceof InsufficientInventoryException) {
+                return INSUFFICIENT_INVENTORY;
+            }
+            if (t instanceof UserServiceException) {
+                return USER_SERVICE_ERROR;
+            }
+            if (t instanceof DataAccessException || t instanceof PersistenceException || t instanceof SQLException) {
+                return DB_ERROR;
+            }
+            if (t instanceof IllegalArgumentException) {
+                return INVALID_REQUEST;
+            }
+        }
+        return ERROR;
+    }
+
+    /**
+     * Classifies a request that recorded no outcome by its HTTP status.
+     *
+     * @param status The response status code.
+     * @return The outcome implied by the status.
+     */
+    public static SalesOutcome ofStatus(int status) {
+        if (status < 400) {
+            return SUCCESS;
+        }
+        if (status == 404) {
+            return NOT_FOUND;
+        }
+        return status < 500 ? INVALID_REQUEST : ERROR;
+    }
+
+    /**
+     * Records this outcome on the request being handled by the current thread, if any.
+     * Calls made outside a web request, such as from benchmarks or background workers, are ignored.
+     */
+    public void record() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, this, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.salesapplication.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesapplication.config.SalesCacheConfig;
+import com.salesapplication.dto.CountMode;
+import com.salesapplication.dto.SalesCount;
 import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+import com.salesapplication.exception.UserNotFoundException;
+import com.salesapplication.model.SaleOrderRequest;
 import com.salesapplication.model.Sales;
 import com.salesapplication.model.VehiclePurchaseRequest;
 import com.salesapplication.repository.SalesRepository;
 import com.vehicleinventorysystem.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing sales operations.
@@ -24,40 +37,144 @@ import java.util.stream.Collectors;
 @Service
 public class SalesService {
 
+    private static final Logger log = LoggerFactory.getLogger(SalesService.class);
+
     @Autowired
     private SalesRepository salesRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private OrderCoalescer orderCoalescer;
+
+    @Autowired
+    private VehicleAvailabilityCache vehicleAvailability;
+
+    @Autowired
+    private SaleStageTimers stageTimers;
+
+    @Autowired
+    private UserSalesSummaryService summaryService;
+
+    @Autowired
+    private SalesAnalyticsService analyticsService;
+
+    @Value("${salesLogging.successSampleRate:0.01}")
+    private double successSampleRate;
+
+    @Value("${salesPageMaxSize:1000}")
+    private int salesPageMaxSize;
 
-    @Value("${userServiceUrl}")
-    private String userServiceUrl;
+    @Value("${salesSearch.countLimit:10000}")
+    private int searchCountLimit;
 
     /**
-     * Retrieves all sales records from the repository and converts them to DTOs.
+     * Retrieves all sales records from the repository as DTOs.
      * 
      * @return A list of SalesDTO objects representing all sales records.
      */
+    @Transactional(readOnly = true)
     public List<SalesDTO> getAllSales() {
         try {
-            return salesRepository.findAll().stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return salesRepository.findAllDtos();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch sales data", e);
+        }
+    }
+
+    /**
+     * Retrieves one keyset page of sales records, ordered by sale ID.
+     * 
+     * @param afterSaleId Only sales with an ID greater than this are returned; use 0 for the first page.
+     * @param size The maximum number of records to return, capped at {@code salesPageMaxSize}.
+     * @return A list of SalesDTO objects for the requested page.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesDTO> getSalesPage(int afterSaleId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        try {
+            return salesRepository.findDtoPageAfter(afterSaleId, PageRequest.of(0, Math.min(size, salesPageMaxSize)));
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch sales data", e);
         }
     }
 
+    /**
+     * Searches sales by date range, sale total, vehicle and buyer, one keyset page at a time in
+     * (saleDate, saleId) order.
+     * 
+     * @param criteria The filters to apply.
+     * @param afterSaleDate The sale date of the last record of the previous page; null for the first page.
+     * @param afterSaleId The sale ID of the last record of the previous page.
+     * @param size The maximum number of records to return, capped at {@code salesPageMaxSize}.
+     * @return A list of SalesDTO objects for the requested page.
+     * @throws IllegalArgumentException If the page size is not positive or the criteria ranges are inverted.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesDTO> searchSales(SalesSearchCriteria criteria, LocalDateTime afterSaleDate, int afterSaleId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        criteria.validate();
+        try {
+            return salesRepository.search(criteria, afterSaleDate, afterSaleId, Math.min(size, salesPageMaxSize));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search sales data", e);
+        }
+    }
+
+    /**
+     * Counts the sales matching a search.
+     * <p>
+     * In {@link CountMode#ESTIMATE} mode at most {@code salesSearch.countLimit} + 1 sale dates are read, in index
+     * order, and extrapolated by {@link SalesCount#fromSaleDates}; so a large range never costs a full COUNT(*) scan.
+     * 
+     * @param criteria The filters to apply.
+     * @param mode How to count; must not be {@link CountMode#NONE}.
+     * @return The count, and whether it is exact.
+     */
+    @Transactional(readOnly = true)
+    public SalesCount countSales(SalesSearchCriteria criteria, CountMode mode) {
+        criteria.validate();
+        try {
+            if (mode == CountMode.EXACT) {
+                return new SalesCount(salesRepository.count(criteria), true);
+            }
+            return SalesCount.fromSaleDates(criteria, salesRepository.findSaleDates(criteria, searchCountLimit + 1),
+                    searchCountLimit);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to count sales data", e);
+        }
+    }
+
+    /**
+     * Streams all sales records to the given consumer as they are read from the database cursor.
+     * Rows are projected straight into DTOs, so nothing accumulates in the persistence context.
+     * 
+     * @param consumer The consumer that receives each SalesDTO in sale ID order.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllSales(Consumer<SalesDTO> consumer) {
+        try (Stream<SalesDTO> sales = salesRepository.streamAllDtos()) {
+            sales.forEach(consumer);
+        }
+    }
+
     /**
      * Retrieves a specific sale record by its ID and converts it to a DTO.
+     * Found sales are served from the {@value SalesCacheConfig#SALES_BY_ID} cache after the first read.
      * 
      * @param id The ID of the sale record.
      * @return A SalesDTO object representing the sale record, or null if not found.
      */
+    @Cacheable(cacheNames = SalesCacheConfig.SALES_BY_ID, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     public SalesDTO getSaleById(int id) {
         try {
-            return salesRepository.findById(id)
-                    .map(this::convertToDTO)
+            return salesRepository.findDtoById(id)
                     .orElse(null);
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch sale data", e);
@@ -65,19 +182,26 @@ public class SalesService {
     }
 
     /**
-     * Updates an existing sale record with new data.
+     * Updates an existing sale record with new data, adjusting the buyer's sales summary and the sale day's
+     * rollup in the same transaction.
      * 
      * @param id The ID of the sale record to be updated.
      * @param salesDTO The new data for the sale record.
      * @return A SalesDTO object representing the updated sale record.
      */
+    @CacheEvict(cacheNames = SalesCacheConfig.SALES_BY_ID, key = "#id")
+    @Transactional
     public SalesDTO updateSale(int id, SalesDTO salesDTO) {
         try {
             return salesRepository.findById(id)
                     .map(existingSale -> {
+                        double oldPrice = existingSale.getSalePrice();
                         existingSale.setSalePrice(salesDTO.getSalePrice());
                         // Update other fields as needed
-                        return convertToDTO(salesRepository.save(existingSale));
+                        SalesDTO updated = convertToDTO(salesRepository.save(existingSale));
+                        summaryService.salePriceChanged(updated.getUserId(), oldPrice, updated.getSalePrice());
+                        analyticsService.dayChanged(updated.getSaleDate().toLocalDate());
+                        return updated;
                     })
                     .orElseThrow(() -> new IllegalArgumentException("Sale with ID " + id + " not found"));
         } catch (Exception e) {
@@ -86,16 +210,27 @@ public class SalesService {
     }
 
     /**
-     * Deletes a sale record by its ID.
+     * Deletes a sale record by its ID and removes it from the buyer's sales summary and the sale day's
+     * rollup in the same transaction.
      * 
      * @param id The ID of the sale record to be deleted.
      * @return true if the sale record was deleted, false otherwise.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SalesCacheConfig.SALES_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = SalesCacheConfig.SALES_DETAILS_BY_SALE_ID, key = "#id")
+    })
+    @Transactional
     public boolean deleteSaleById(int id) {
         try {
             return salesRepository.findById(id)
                     .map(sale -> {
+                        int userId = sale.getUser().getUserId();
                         salesRepository.delete(sale);
+                        // The summary and the rollup re-read the sales table, so the delete must reach the database first
+                        salesRepository.flush();
+                        summaryService.saleDeleted(userId, sale.getSalePrice());
+                        analyticsService.dayChanged(sale.getSaleDate().toLocalDate());
                         return true;
                     })
                     .orElse(false);
@@ -109,17 +244,19 @@ public class SalesService {
      * 
      * @param userId The ID of the user whose sales records are to be retrieved.
      * @return A list of SalesDTO objects representing the sales records for the user.
+     * @throws UserNotFoundException If the user service does not know the user.
      */
+    @Transactional(readOnly = true)
     public List<SalesDTO> getSalesByUserId(int userId) {
         try {
             User user = getUserFromUserService(userId);
             if (user == null) {
-                throw new IllegalArgumentException("User with ID " + userId + " not found");
+                throw new UserNotFoundException(userId);
             }
 
-            return salesRepository.findByUser(user).stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return salesRepository.findDtosByUserId(userId);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch sales data for user ID " + userId, e);
         }
@@ -127,111 +264,101 @@ public class SalesService {
 
     /**
      * Adds sales records to the system.
+     * Failures are always logged; successes only for a sample of {@code salesLogging.successSampleRate} orders.
+     * The order payload itself is never logged.
      * 
-     * @param saleDetails A map containing the details of the sale including userId and a list of vehicles.
+     * @param saleDetails The order, including the userId and a list of vehicles.
      * @return A response map indicating the status and message of the operation.
      */
-    @Transactional
-    public Map<String, Object> addSales(Map<String, Object> saleDetails) {
-        Map<String, Object> response = new HashMap<>();
+    public Map<String, Object> addSales(SaleOrderRequest saleDetails) {
+        long start = System.nanoTime();
         try {
-            int userId = (int) saleDetails.get("userId");
-            List<Map<String, Object>> vehiclesList = (List<Map<String, Object>>) saleDetails.get("vehicles");
+            saleDetails.validate();
 
-            List<VehiclePurchaseRequest> vehicles = vehiclesList.stream()
-                    .map(vehicleData -> {
-                        VehiclePurchaseRequest request = new VehiclePurchaseRequest();
-                        request.setVehicleId((int) vehicleData.get("vehicleId"));
-                        request.setCount((int) vehicleData.get("count"));
-                        return request;
-                    }).collect(Collectors.toList());
-
-            processSales(vehicles, userId);
+            processSales(saleDetails.getVehicles(), saleDetails.getUserId());
 
             // If processSales completes without exceptions
-            response.put("status", "success");
-            response.put("message", "Sales processed successfully");
-            response.put("sale Details ", saleDetails);
+            Map<String, Object> response = stageTimers.responseBuild().record(() -> {
+                Map<String, Object> success = new HashMap<>();
+                success.put("status", "success");
+                success.put("message", "Sales processed successfully");
+                success.put("sale Details ", saleDetails);
+                return success;
+            });
+            SalesOutcome.SUCCESS.record();
+            if (ThreadLocalRandom.current().nextDouble() < successSampleRate) {
+                log.atInfo()
+                        .addKeyValue("userId", saleDetails.getUserId())
+                        .addKeyValue("vehicleLines", saleDetails.getVehicles().size())
+                        .addKeyValue("durationMs", elapsedMillis(start))
+                        .log("Sale processed");
+            }
+            return response;
         } catch (IllegalArgumentException e) {
             // Handle illegal argument exception
-            response.put("status", "error");
-            response.put("message", "Invalid input: " + e.getMessage());
+            SalesOutcome outcome = SalesOutcome.of(e);
+            outcome.record();
+            log.atWarn()
+                    .addKeyValue("userId", saleDetails.getUserId())
+                    .addKeyValue("outcome", outcome.tagValue())
+                    .addKeyValue("durationMs", elapsedMillis(start))
+                    .addKeyValue("reason", e.getMessage())
+                    .log("Sale rejected");
+            return errorResponse("Invalid input: " + e.getMessage());
         } catch (RuntimeException e) {
             // Handle runtime exception
-            response.put("status", "error");
-            response.put("message", "Processing error: " + e.getMessage());
-        } catch (Exception e) {
-            // Handle any other unexpected exceptions
-            response.put("status", "error");
-            response.put("message", "Unexpected error: " + e.getMessage());
+            SalesOutcome outcome = SalesOutcome.of(e);
+            outcome.record();
+            log.atError()
+                    .addKeyValue("userId", saleDetails.getUserId())
+                    .addKeyValue("outcome", outcome.tagValue())
+                    .addKeyValue("durationMs", elapsedMillis(start))
+                    .setCause(e)
+                    .log("Sale failed");
+            return errorResponse("Processing error: " + e.getMessage());
         }
-        System.out.println(response);
-        return response;
     }
 
     /**
-     * Processes sales records by validating the user and calling the repository to save the sales.
+     * Processes sales records by validating the user and writing the order, in a transaction shared with
+     * concurrent orders for the same vehicles (see {@link OrderCoalescer}). The user and the vehicles' available
+     * counts are looked up first, so no remote call runs while the order holds a database connection or its
+     * vehicle locks.
      * 
      * @param vehicles A list of VehiclePurchaseRequest objects containing vehicle details.
      * @param userId The ID of the user making the purchase.
-     * @throws JsonProcessingException If there is an error converting the vehicles list to JSON.
      * @throws IllegalArgumentException If the user with the given ID is not found.
-     * @throws RuntimeException If there is an error processing the sales.
+     * @throws RuntimeException If there is an error converting the vehicles to JSON or processing the sales.
      */
-    @Transactional
     public void processSales(List<VehiclePurchaseRequest> vehicles, int userId) {
-        try {
-            User user = getUserFromUserService(userId);
-            if (user == null) {
-                throw new IllegalArgumentException("User with ID " + userId + " not found");
-            }
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            String vehicleDataJson = objectMapper.writeValueAsString(vehicles);
-            String error_message = "";
-
-            // Call the stored procedure to insert sales records and retrieve error_message
-            error_message = salesRepository.insertSaleRecords(userId, vehicleDataJson);
-            System.out.println(error_message);
-            // Check error_message after stored procedure call
-            if (error_message != null && !error_message.isEmpty()) {
-                if (error_message.equals("success")) {
-                    return;
-                } else {
-                    throw new RuntimeException(error_message);
-                }
-            }
-        } catch (JsonProcessingException e) {
-            // Handle JSON processing exception
-            System.out.println(1);
-            throw new RuntimeException("Error converting vehicles to JSON: " + e.getMessage(), e);
-        } catch (IllegalArgumentException e) {
-            // Handle illegal argument exception
-            System.out.println(e);
-            throw e;  // Re-throw IllegalArgumentExceptions
-        } catch (RuntimeException e) {
-            // Handle runtime exception
-            System.out.println(e);
-            throw e;  // Re-throw RuntimeExceptions
-        } catch (Exception e) {
-            // Handle any other unexpected exceptions
-            System.out.println(3);
-            throw new RuntimeException("Failed to process sale: " + e.getMessage(), e);
+        User user = stageTimers.userLookup().record(() -> getUserFromUserService(userId));
+        if (user == null) {
+            throw new UserNotFoundException(userId);
         }
+        vehicleAvailability.preload(vehicles);
+
+        orderCoalescer.write(userId, vehicles);
+    }
+
+    private Map<String, Object> errorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return response;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     /**
-     * Fetches a user by their ID from the user service.
+     * Fetches a user by their ID through the user lookup cache.
      * 
      * @param userId The ID of the user to be fetched.
-     * @return A User object representing the user, or throws an exception if not found.
+     * @return A User object representing the user, or null if the user service does not know the ID.
      */
     private User getUserFromUserService(int userId) {
-        try {
-            return restTemplate.getForObject(userServiceUrl + userId, User.class);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch user data", e);
-        }
+        return userLookupCache.getUser(userId);
     }
 
     /**
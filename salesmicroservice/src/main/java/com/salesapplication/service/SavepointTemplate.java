@@ -0,0 +1,70 @@
+package com.salesapplication.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.function.Supplier;
+
+/**
+ * Runs work inside a JDBC savepoint of the current transaction, so that a failure rolls back that work only.
+ * <p>
+ * Stands in for {@code PROPAGATION_NESTED}, which the JPA transaction manager rejects with Hibernate because its
+ * JPA dialect exposes no savepoints. The savepoint is set on the Hibernate session's connection, which is also the
+ * connection JdbcTemplate writes through, so JPA and JDBC writes are rolled back together. On failure the
+ * persistence context is cleared, since it still holds changes the database no longer has.
+ * <p>
+ * The work must not fail through a {@code @Transactional} participant: Spring would mark the whole transaction
+ * rollback-only, which rolling back to the savepoint does not undo.
+ */
+@Component
+public class SavepointTemplate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Runs the action in a new savepoint and releases it once the action's changes are flushed.
+     *
+     * @param action The work to run.
+     * @return The action's result.
+     * @throws IllegalStateException If no transaction is active.
+     * @throws RuntimeException The action's own exception, after its work has been rolled back.
+     */
+    public <T> T execute(Supplier<T> action) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Savepoints need an active transaction");
+        }
+        Session session = entityManager.unwrap(Session.class);
+        // Changes made before the savepoint must not be rolled back with the action
+        session.flush();
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        T result;
+        try {
+            result = action.get();
+            session.flush();
+        } catch (RuntimeException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            session.clear();
+            throw e;
+        }
+        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+        return result;
+    }
+
+    /**
+     * Runs the action in a new savepoint, as {@link #execute(Supplier)} does.
+     *
+     * @param action The work to run.
+     */
+    public void executeWithoutResult(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
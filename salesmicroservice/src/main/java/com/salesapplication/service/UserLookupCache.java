@@ -0,0 +1,182 @@
+package com.salesapplication.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.salesapplication.exception.UserServiceException;
+import com.vehicleinventorysystem.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caching front for the inventory user service.
+ * Found users are kept for {@code userCache.ttl}, "not found" answers for the shorter
+ * {@code userCache.negativeTtl}, and concurrent misses for the same user ID share a single outbound call.
+ * Outbound calls pass through a bulkhead of {@code userServiceBulkhead.maxConcurrentCalls} permits, so a slow
+ * user service cannot tie up more than that many request threads on this node.
+ * <p>
+ * The cache holds futures: a miss installs an incomplete future and the calling thread performs the load
+ * outside the cache's internal lock, while concurrent callers wait on the future. No monitor is held across
+ * the HTTP call, so a virtual thread waiting here parks instead of pinning its carrier thread.
+ */
+@Component
+public class UserLookupCache {
+
+    private final RestTemplate restTemplate;
+
+    private final String userServiceUrl;
+
+    private final AsyncCache<Integer, Optional<User>> cache;
+
+    private final Timer loadTimer;
+
+    private final Semaphore bulkhead;
+
+    private final long bulkheadMaxWaitMillis;
+
+    private final Counter bulkheadRejections;
+
+    /**
+     * Constructor for UserLookupCache.
+     *
+     * @param restTemplate The client used to call the user service.
+     * @param meterRegistry The registry that receives the cache and load-latency metrics.
+     * @param userServiceUrl The base URL of the user service.
+     * @param maximumSize The maximum number of user IDs kept in the cache.
+     * @param ttl How long a found user is cached.
+     * @param negativeTtl How long a "not found" answer is cached.
+     * @param maxConcurrentCalls The maximum number of in-flight user service calls.
+     * @param bulkheadMaxWait How long a cache miss waits for a free bulkhead permit.
+     */
+    @Autowired
+    public UserLookupCache(RestTemplate restTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${userServiceUrl}") String userServiceUrl,
+                           @Value("${userCache.maximumSize:10000}") long maximumSize,
+                           @Value("${userCache.ttl:5m}") Duration ttl,
+                           @Value("${userCache.negativeTtl:30s}") Duration negativeTtl,
+                           @Value("${userServiceBulkhead.maxConcurrentCalls:32}") int maxConcurrentCalls,
+                           @Value("${userServiceBulkhead.maxWait:250ms}") Duration bulkheadMaxWait) {
+        this.restTemplate = restTemplate;
+        this.userServiceUrl = userServiceUrl;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadMaxWaitMillis = bulkheadMaxWait.toMillis();
+        this.bulkheadRejections = Counter.builder("user.lookup.bulkhead.rejected")
+                .description("User service calls rejected because the bulkhead was full")
+                .register(meterRegistry);
+        Gauge.builder("user.lookup.inflight", bulkhead, permits -> maxConcurrentCalls - permits.availablePermits())
+                .description("User service calls currently in flight")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("user.lookup.load")
+                .description("Latency of user service calls made on a cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new FoundOrMissingExpiry(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "userLookup");
+    }
+
+    /**
+     * Returns the user with the given ID, calling the user service only on a cache miss.
+     *
+     * @param userId The ID of the user to be fetched.
+     * @return The User, or null if the user service does not know the ID.
+     * @throws UserServiceException If the user service could not be reached.
+     */
+    public User getUser(int userId) {
+        CompletableFuture<Optional<User>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> future = cache.get(userId, (key, executor) -> created);
+        if (future == created) {
+            // This caller won the miss; failed loads are dropped from the cache automatically
+            try {
+                created.complete(load(userId));
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join().orElse(null);
+        } catch (CompletionException e) {
+            throw new UserServiceException("Failed to fetch user data", e.getCause());
+        }
+    }
+
+    /**
+     * Drops any cached answer for the given user ID.
+     *
+     * @param userId The ID of the user to forget.
+     */
+    public void invalidate(int userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    private Optional<User> load(int userId) throws InterruptedException {
+        if (!bulkhead.tryAcquire(bulkheadMaxWaitMillis, TimeUnit.MILLISECONDS)) {
+            bulkheadRejections.increment();
+            throw new RejectedExecutionException("User service bulkhead is full");
+        }
+        try {
+            return loadTimer.record(() -> {
+                try {
+                    return Optional.ofNullable(restTemplate.getForObject(userServiceUrl + userId, User.class));
+                } catch (HttpClientErrorException.NotFound e) {
+                    return Optional.empty();
+                }
+            });
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Gives found users the regular TTL and "not found" answers the negative TTL.
+     */
+    static final class FoundOrMissingExpiry implements Expiry<Integer, Optional<User>> {
+
+        private final long ttlNanos;
+
+        private final long negativeTtlNanos;
+
+        FoundOrMissingExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Integer userId, Optional<User> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer userId, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Integer userId, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.salesapplication.service;
+
+import com.salesapplication.model.UserSalesSummary;
+import com.salesapplication.repository.UserSalesSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class maintaining the per-user sales summary.
+ * The update methods join the caller's transaction, so a summary change commits or rolls back
+ * together with the sales row it reflects. New sales are counted by {@link SaleRecordWriter} itself.
+ */
+@Service
+public class UserSalesSummaryService {
+
+    private final UserSalesSummaryRepository summaryRepository;
+
+    /**
+     * Constructor for UserSalesSummaryService.
+     *
+     * @param summaryRepository The repository for the summary table.
+     */
+    @Autowired
+    public UserSalesSummaryService(UserSalesSummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
+    }
+
+    /**
+     * Returns the summary of a user's purchases with a primary key lookup.
+     *
+     * @param userId The ID of the user.
+     * @return The summary, or null if the user has never bought anything.
+     */
+    @Transactional(readOnly = true)
+    public UserSalesSummary getSummary(int userId) {
+        return summaryRepository.findById(userId).orElse(null);
+    }
+
+    /**
+     * Applies a change of sale price to the buyer's total spend.
+     *
+     * @param userId The ID of the buyer.
+     * @param oldPrice The price before the update.
+     * @param newPrice The price after the update.
+     */
+    @Transactional
+    public void salePriceChanged(int userId, double oldPrice, double newPrice) {
+        if (newPrice != oldPrice) {
+            summaryRepository.adjustTotalSpend(userId, newPrice - oldPrice);
+        }
+    }
+
+    /**
+     * Removes a deleted sale from the buyer's summary. Must be called after the sale row is deleted.
+     *
+     * @param userId The ID of the buyer.
+     * @param price The price of the deleted sale.
+     */
+    @Transactional
+    public void saleDeleted(int userId, double price) {
+        summaryRepository.removeSale(userId, price);
+    }
+
+    /**
+     * Recomputes every summary row from the sales table, for backfill or repair.
+     * Runs as one transaction; readers keep seeing the previous rows until it commits.
+     *
+     * @return The number of users with a summary after the rebuild.
+     */
+    @Transactional
+    public int rebuildAll() {
+        summaryRepository.deleteAllRows();
+        return summaryRepository.insertAllFromSales();
+    }
+
+    /**
+     * Recomputes the summary row of one user from the sales table.
+     *
+     * @param userId The ID of the user.
+     * @return The recomputed summary, or null if the user has no sales.
+     */
+    @Transactional
+    public UserSalesSummary rebuild(int userId) {
+        summaryRepository.deleteRow(userId);
+        summaryRepository.insertFromSales(userId);
+        return summaryRepository.findById(userId).orElse(null);
+    }
+}
@@ -0,0 +1,193 @@
+package com.salesapplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control in front of {@code insert_sale_records} for contended vehicles.
+ * <p>
+ * Orders are serialised per vehicle on {@code vehicleAdmission.stripes} fair locks, so concurrent purchases
+ * of a hot vehicle reach MySQL one at a time and in arrival order instead of piling up on its row locks.
+ * Locks are taken in stripe order and held until the caller's transaction completes, because the database
+ * keeps its row locks until then: releasing them per order would only move the wait into MySQL. A transaction
+ * writing several orders, such as a bulk chunk or a group of {@link OrderCoalescer}, so holds the locks of all
+ * its orders until it commits; it makes no remote call meanwhile, as counts and users are loaded before it opens.
+ * An order that cannot get its locks within {@code vehicleAdmission.lockTimeout} fails instead of waiting on;
+ * concurrent single orders for the same vehicles do not contend here, as the coalescer writes them together.
+ * <p>
+ * Once the procedure reports a vehicle out of stock, orders for it are rejected here with "Insufficient inventory"
+ * for {@code vehicleAdmission.soldOutTtl}, without touching the database.
+ */
+@Component
+public class VehicleAdmissionControl {
+
+    // Matches the vehicle named in the procedure's error, e.g. "Insufficient inventory for vehicle ID 12"
+    private static final Pattern VEHICLE_IN_MESSAGE = Pattern.compile("(?i)vehicle(?:\\s+id)?\\s*[:#]?\\s*(\\d+)");
+
+    private final ReentrantLock[] stripes;
+
+    private final long lockTimeoutMillis;
+
+    private final Cache<Integer, Boolean> soldOut;
+
+    private final Counter soldOutRejections;
+
+    private final Counter lockTimeouts;
+
+    /**
+     * Constructor for VehicleAdmissionControl.
+     *
+     * @param meterRegistry The registry that receives the rejection counters.
+     * @param stripeCount The number of locks vehicle IDs are spread over.
+     * @param lockTimeout How long an order waits for the locks of its vehicles.
+     * @param soldOutTtl How long a vehicle reported out of stock is rejected locally.
+     */
+    @Autowired
+    public VehicleAdmissionControl(MeterRegistry meterRegistry,
+                                   @Value("${vehicleAdmission.stripes:64}") int stripeCount,
+                                   @Value("${vehicleAdmission.lockTimeout:2s}") Duration lockTimeout,
+                                   @Value("${vehicleAdmission.soldOutTtl:30s}") Duration soldOutTtl) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+        this.soldOut = Caffeine.newBuilder()
+                .expireAfterWrite(soldOutTtl)
+                .build();
+        this.soldOutRejections = rejections(meterRegistry, "sold_out");
+        this.lockTimeouts = rejections(meterRegistry, "lock_timeout");
+    }
+
+    /**
+     * The locks held for one admitted order.
+     */
+    public interface Admission extends AutoCloseable {
+
+        /**
+         * Releases the locks, unless they are held until the current transaction completes.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Waits for the vehicles of an order to be free and locks them. Inside a transaction the locks are held
+     * until it completes; otherwise until the returned admission is closed.
+     *
+     * @param vehicles The vehicles being purchased.
+     * @return The admission, to be closed once the order has been written.
+     * @throws InsufficientInventoryException If one of the vehicles is known to be out of stock.
+     * @throws RuntimeException If the vehicles could not be locked within the lock timeout.
+     */
+    public Admission admit(List<VehiclePurchaseRequest> vehicles) {
+        checkInStock(vehicles);
+        int[] stripeIndexes = vehicles.stream()
+                .mapToInt(vehicle -> stripeIndex(vehicle.getVehicleId()))
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripeIndexes) {
+                if (!stripes[stripe].tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    lockTimeouts.increment();
+                    throw new RuntimeException("Vehicles in this order are busy, retry later");
+                }
+                locked++;
+            }
+            // Another order may have found a vehicle sold out while this one waited
+            checkInStock(vehicles);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(stripeIndexes, locked);
+            throw new RuntimeException("Interrupted while waiting for vehicles", e);
+        } catch (RuntimeException e) {
+            unlock(stripeIndexes, locked);
+            throw e;
+        }
+        return releaseAfterCompletion(stripeIndexes);
+    }
+
+    /**
+     * Records that the procedure rejected an order for lack of stock. The vehicle named in the message is
+     * marked sold out, or the only vehicle of the order when the message names none.
+     *
+     * @param vehicles The vehicles of the rejected order.
+     * @param message The error message reported by the procedure.
+     */
+    public void rejectedForInventory(List<VehiclePurchaseRequest> vehicles, String message) {
+        Matcher matcher = VEHICLE_IN_MESSAGE.matcher(message);
+        if (matcher.find()) {
+            int vehicleId = Integer.parseInt(matcher.group(1));
+            if (vehicles.stream().anyMatch(vehicle -> vehicle.getVehicleId() == vehicleId)) {
+                soldOut.put(vehicleId, Boolean.TRUE);
+                return;
+            }
+        }
+        if (vehicles.stream().mapToInt(VehiclePurchaseRequest::getVehicleId).distinct().count() == 1) {
+            soldOut.put(vehicles.get(0).getVehicleId(), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Rejects an order naming a vehicle known to be out of stock, without taking any lock.
+     *
+     * @param vehicles The vehicles being purchased.
+     * @throws InsufficientInventoryException If one of the vehicles is known to be out of stock.
+     */
+    public void checkInStock(List<VehiclePurchaseRequest> vehicles) {
+        for (VehiclePurchaseRequest vehicle : vehicles) {
+            if (soldOut.getIfPresent(vehicle.getVehicleId()) != null) {
+                soldOutRejections.increment();
+                throw new InsufficientInventoryException(vehicle.getVehicleId());
+            }
+        }
+    }
+
+    private Admission releaseAfterCompletion(int[] stripeIndexes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return () -> unlock(stripeIndexes, stripeIndexes.length);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(stripeIndexes, stripeIndexes.length);
+            }
+        });
+        return () -> { };
+    }
+
+    private void unlock(int[] stripeIndexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+
+    private int stripeIndex(int vehicleId) {
+        return Math.floorMod(Integer.hashCode(vehicleId) * 0x9E3779B9, stripes.length);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("sales.admission.rejected")
+                .description("Orders rejected before reaching the database")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
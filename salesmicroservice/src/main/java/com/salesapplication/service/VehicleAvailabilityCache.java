@@ -0,0 +1,267 @@
+package com.salesapplication.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.salesapplication.dto.VehicleDTO;
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local view of how many units of each vehicle are available, so orders that clearly exceed stock are
+ * rejected before a database transaction is opened.
+ * <p>
+ * A vehicle's count is loaded from the vehicle service the first time it is ordered, decremented when a sale
+ * of it commits, and reset to the vehicle service's count every {@code vehicleAvailability.reconcileInterval}.
+ * Counts are loaded by {@link #preload}, on {@code vehicleAvailability.loadThreads} threads of their own, before
+ * the order takes its vehicle locks and opens its transaction; the check under the locks only reads them.
+ * Reconciliation calls the vehicle service on the same threads, one batch of that many vehicles at a time, so
+ * it never queues more than a batch ahead of the orders' loads. At most {@code vehicleAvailability.maximumSize}
+ * vehicles are tracked, and a vehicle not ordered for {@code vehicleAvailability.idleTimeout} stops being tracked.
+ * The stored procedure stays the authority: when a count is unknown, because the vehicle service could not be
+ * reached, the order is let through, and a count that is too high only lets the procedure reject the order.
+ */
+@Component
+public class VehicleAvailabilityCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleAvailabilityCache.class);
+
+    private final RestTemplate restTemplate;
+
+    private final String vehicleServiceUrl;
+
+    private final ExecutorService loader;
+
+    private final AsyncLoadingCache<Integer, AtomicInteger> available;
+
+    private final long loadTimeoutMillis;
+
+    private final int reconcileBatchSize;
+
+    private final DistributionSummary drift;
+
+    /**
+     * Constructor for VehicleAvailabilityCache.
+     *
+     * @param restTemplate The client used to call the vehicle service.
+     * @param meterRegistry The registry that receives the cache and drift metrics.
+     * @param vehicleServiceUrl The base URL of the vehicle service.
+     * @param maximumSize The maximum number of vehicles tracked.
+     * @param idleTimeout How long a vehicle is tracked after it was last ordered.
+     * @param loadThreads The number of threads loading counts from the vehicle service.
+     * @param loadTimeout How long an order waits for the counts of its vehicles to load.
+     */
+    @Autowired
+    public VehicleAvailabilityCache(RestTemplate restTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${vehicleServiceUrl}") String vehicleServiceUrl,
+                                    @Value("${vehicleAvailability.maximumSize:10000}") long maximumSize,
+                                    @Value("${vehicleAvailability.idleTimeout:15m}") Duration idleTimeout,
+                                    @Value("${vehicleAvailability.loadThreads:8}") int loadThreads,
+                                    @Value("${vehicleAvailability.loadTimeout:2s}") Duration loadTimeout) {
+        this.restTemplate = restTemplate;
+        this.vehicleServiceUrl = vehicleServiceUrl;
+        this.loadTimeoutMillis = loadTimeout.toMillis();
+        this.reconcileBatchSize = loadThreads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(loadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "vehicle-availability-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.available = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleTimeout)
+                .executor(loader)
+                .recordStats()
+                .buildAsync(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, available.synchronous(), "vehicleAvailability");
+        this.drift = DistributionSummary.builder("vehicle.availability.drift")
+                .description("Difference between the local and the vehicle service's available count at reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the counts of the given vehicles that are not known yet, concurrently, and waits for them up to
+     * {@code vehicleAvailability.loadTimeout}. To be called before the orders take their vehicle locks and open
+     * their transaction. Counts still loading when the wait ends are left to finish in the background.
+     *
+     * @param vehicles The vehicles of one or more orders.
+     */
+    public void preload(Collection<VehiclePurchaseRequest> vehicles) {
+        try {
+            available.getAll(requestedCounts(vehicles).keySet()).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // The orders go on without a local check; the procedure still checks stock
+            log.atWarn().addKeyValue("vehicles", vehicles.size()).setCause(e).log("Vehicle availability not preloaded");
+        }
+    }
+
+    /**
+     * Rejects an order that asks for more units of a vehicle than are known to be available.
+     * Only reads counts already loaded, so it never calls the vehicle service.
+     *
+     * @param vehicles The vehicles and counts being purchased.
+     * @throws InsufficientInventoryException If a vehicle's known available count is below the requested count.
+     */
+    public void checkAvailable(Collection<VehiclePurchaseRequest> vehicles) {
+        requestedCounts(vehicles).forEach((vehicleId, requested) -> {
+            AtomicInteger count = known(vehicleId);
+            if (count != null && count.get() < requested) {
+                throw new InsufficientInventoryException(vehicleId);
+            }
+        });
+    }
+
+    /**
+     * Takes the purchased units off the local counts once the current transaction commits,
+     * or straight away when no transaction is active.
+     *
+     * @param vehicles The vehicles and counts that were purchased.
+     */
+    public void decrementAfterCommit(Collection<VehiclePurchaseRequest> vehicles) {
+        Map<Integer, Integer> purchased = requestedCounts(vehicles);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            decrement(purchased);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                decrement(purchased);
+            }
+        });
+    }
+
+    /**
+     * Forgets the local counts of the given vehicles, so they are reloaded on the next order.
+     *
+     * @param vehicles The vehicles whose counts can no longer be trusted.
+     */
+    public void invalidate(Collection<VehiclePurchaseRequest> vehicles) {
+        available.synchronous().invalidateAll(requestedCounts(vehicles).keySet());
+    }
+
+    /**
+     * Resets every tracked count to the vehicle service's count, calling it for a batch of vehicles in parallel.
+     * Sales that commit locally while a vehicle's call is in flight are kept off the reset count.
+     */
+    @Scheduled(initialDelayString = "${vehicleAvailability.reconcileInterval:1m}",
+            fixedDelayString = "${vehicleAvailability.reconcileInterval:1m}")
+    public void reconcile() {
+        // Iterating the map does not count as an access, so vehicles nobody orders still expire
+        List<Map.Entry<Integer, AtomicInteger>> tracked = new ArrayList<>();
+        available.asMap().forEach((vehicleId, count) -> {
+            if (count.isDone() && !count.isCompletedExceptionally() && count.join() != null) {
+                tracked.add(Map.entry(vehicleId, count.join()));
+            }
+        });
+
+        int reconciled = 0;
+        for (int from = 0; from < tracked.size(); from += reconcileBatchSize) {
+            List<CompletableFuture<Boolean>> batch = tracked
+                    .subList(from, Math.min(from + reconcileBatchSize, tracked.size()))
+                    .stream()
+                    .map(entry -> CompletableFuture.supplyAsync(() -> reconcile(entry.getKey(), entry.getValue()), loader))
+                    .toList();
+            try {
+                CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                log.atWarn().addKeyValue("vehicles", batch.size()).setCause(e).log("Vehicle availability batch not reconciled");
+            }
+            reconciled += (int) batch.stream()
+                    .filter(call -> call.isDone() && !call.isCompletedExceptionally() && call.join())
+                    .count();
+        }
+        log.atDebug().addKeyValue("vehicles", reconciled).log("Vehicle availability reconciled");
+    }
+
+    /**
+     * Stops the threads loading counts.
+     */
+    @PreDestroy
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    private void decrement(Map<Integer, Integer> purchased) {
+        purchased.forEach((vehicleId, count) -> {
+            AtomicInteger current = known(vehicleId);
+            if (current != null) {
+                current.updateAndGet(value -> Math.max(0, value - count));
+            }
+        });
+    }
+
+    // Applied as a delta against the count read before the call, so a sale taken off the count while the call
+    // was in flight stays taken off instead of being overwritten, or subtracted twice by a later reset
+    private boolean reconcile(int vehicleId, AtomicInteger current) {
+        int before = current.get();
+        AtomicInteger authoritative = load(vehicleId);
+        if (authoritative == null) {
+            return false;
+        }
+        int correction = authoritative.get() - before;
+        current.updateAndGet(value -> Math.max(0, value + correction));
+        drift.record(Math.abs(correction));
+        return true;
+    }
+
+    // A count still loading counts as unknown, so no caller ever waits on the vehicle service here
+    private AtomicInteger known(int vehicleId) {
+        CompletableFuture<AtomicInteger> count = available.getIfPresent(vehicleId);
+        return count != null && count.isDone() && !count.isCompletedExceptionally() ? count.join() : null;
+    }
+
+    private AtomicInteger load(int vehicleId) {
+        try {
+            VehicleDTO vehicle = restTemplate.getForObject(vehicleServiceUrl + vehicleId, VehicleDTO.class);
+            return vehicle == null ? null : new AtomicInteger(vehicle.getAvailableCount());
+        } catch (RestClientException e) {
+            // Unknown counts are not cached; the procedure still checks stock
+            log.atWarn().addKeyValue("vehicleId", vehicleId).setCause(e).log("Vehicle availability not loaded");
+            return null;
+        }
+    }
+
+    private static Map<Integer, Integer> requestedCounts(Collection<VehiclePurchaseRequest> vehicles) {
+        // Sorted, so checks and messages are deterministic for orders naming a vehicle more than once
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (VehiclePurchaseRequest vehicle : vehicles) {
+            counts.merge(vehicle.getVehicleId(), vehicle.getCount(), Integer::sum);
+        }
+        return counts;
+    }
+}
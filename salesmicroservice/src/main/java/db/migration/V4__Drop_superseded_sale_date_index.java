@@ -0,0 +1,44 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Drops {@code idx_sales_sale_date}, superseded by {@code idx_sales_date_covering} which has the same leading
+ * column. Only databases that ran a release with ddl-auto=update have it, and MySQL has no
+ * {@code DROP INDEX IF EXISTS}, so this is a Java migration that looks the index up first.
+ */
+public class V4__Drop_superseded_sale_date_index extends BaseJavaMigration {
+
+    private static final String INDEX = "idx_sales_sale_date";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!hasIndex(connection, "sales", INDEX)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX " + INDEX + " ON sales");
+        }
+    }
+
+    private static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, false, true)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+-- The sales and sales_details tables as the service shipped before it had migrations.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate), so this only runs on
+-- an empty schema; everything added since goes in later versions that also hold on a baselined database.
+-- users and vehicles belong to the inventory service, so user_id and vehicle_id carry no foreign keys here,
+-- and the insert_sale_records procedure is deployed with the inventory schema.
+
+CREATE TABLE sales (
+    sale_id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    sale_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total_amount DOUBLE NOT NULL,
+    PRIMARY KEY (sale_id)
+);
+
+CREATE TABLE sales_details (
+    sale_detail_id INT NOT NULL AUTO_INCREMENT,
+    sale_id INT NOT NULL,
+    vehicle_id INT NOT NULL,
+    price DOUBLE NOT NULL,
+    vehicle_count DOUBLE NOT NULL,
+    PRIMARY KEY (sale_detail_id),
+    CONSTRAINT fk_sales_details_sale FOREIGN KEY (sale_id) REFERENCES sales (sale_id)
+);
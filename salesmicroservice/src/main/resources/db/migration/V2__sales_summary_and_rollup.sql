@@ -0,0 +1,27 @@
+-- Per-user sales summaries and daily sales rollups. A database that ran a release with ddl-auto=update may
+-- already have them, hence IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS user_sales_summary (
+    user_id INT NOT NULL,
+    sale_count BIGINT NOT NULL,
+    total_spend DOUBLE NOT NULL,
+    last_purchase_at DATETIME(6),
+    PRIMARY KEY (user_id)
+);
+
+-- Summaries are kept up to date by every write from now on; seed them from the existing sales if the table is new
+INSERT INTO user_sales_summary (user_id, sale_count, total_spend, last_purchase_at)
+SELECT s.user_id, COUNT(*), SUM(s.total_amount), MAX(s.sale_date) FROM sales s
+WHERE NOT EXISTS (SELECT 1 FROM user_sales_summary)
+GROUP BY s.user_id;
+
+-- Filled by the scheduled rollup job, which starts from the first sale day when the table is empty
+CREATE TABLE IF NOT EXISTS sales_rollup (
+    bucket_date DATE NOT NULL,
+    dimension VARCHAR(8) NOT NULL,
+    dimension_id INT NOT NULL,
+    sale_count BIGINT NOT NULL,
+    units DOUBLE NOT NULL,
+    revenue DOUBLE NOT NULL,
+    PRIMARY KEY (bucket_date, dimension, dimension_id)
+);
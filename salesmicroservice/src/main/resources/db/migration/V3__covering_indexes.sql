@@ -0,0 +1,13 @@
+-- Covering indexes for the sales read paths. Each holds every column its queries read, so they are answered
+-- from the index without visiting the table rows. The sale or detail ID is listed explicitly after the
+-- leading column because the queries order by it.
+
+-- Sales of one user: findDtosByUserId and the per-user summary recompute
+CREATE INDEX idx_sales_user_covering ON sales (user_id, sale_id, sale_date, total_amount);
+
+-- Date ranges: the analytics rollups and live buckets, and keyset paging on (sale_date, sale_id).
+-- Supersedes idx_sales_sale_date, which V4 drops where an earlier release created it
+CREATE INDEX idx_sales_date_covering ON sales (sale_date, sale_id, user_id, total_amount);
+
+-- Details of one sale: findDtosBySaleId and findBySale_SaleId
+CREATE INDEX idx_sales_details_sale_covering ON sales_details (sale_id, sale_detail_id, vehicle_id, price, vehicle_count);
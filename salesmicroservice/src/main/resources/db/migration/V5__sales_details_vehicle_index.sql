@@ -0,0 +1,3 @@
+-- Sales that include a vehicle: the vehicleId filter of the sales search looks up detail lines by
+-- (vehicle_id, sale_id)
+CREATE INDEX idx_sales_details_vehicle_sale ON sales_details (vehicle_id, sale_id);
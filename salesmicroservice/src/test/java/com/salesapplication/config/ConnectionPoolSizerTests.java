@@ -0,0 +1,54 @@
+package com.salesapplication.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+class ConnectionPoolSizerTests {
+
+	@Test
+	void poolSizeFollowsFormulaSplitAcrossInstances() {
+		assertThat(ConnectionPoolSizer.poolSize(8, 1, 1)).isEqualTo(17);
+		assertThat(ConnectionPoolSizer.poolSize(8, 1, 4)).isEqualTo(5);
+		assertThat(ConnectionPoolSizer.poolSize(1, 0, 8)).isEqualTo(2);
+		assertThatIllegalArgumentException().isThrownBy(() -> ConnectionPoolSizer.poolSize(0, 1, 1));
+	}
+
+	@Test
+	void sizesPoolAsFixedSize() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("connectionPool.databaseCores", "4")
+				.withProperty("connectionPool.effectiveSpindles", "2");
+
+		HikariDataSource dataSource = sized(environment);
+
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(10);
+		assertThat(dataSource.getMinimumIdle()).isEqualTo(10);
+	}
+
+	@Test
+	void explicitPoolSettingsWin() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("connectionPool.databaseCores", "16")
+				.withProperty("spring.datasource.hikari.maximum-pool-size", "12")
+				.withProperty("spring.datasource.hikari.minimum-idle", "3");
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setMaximumPoolSize(12);
+		dataSource.setMinimumIdle(3);
+
+		new ConnectionPoolSizer(environment).postProcessBeforeInitialization(dataSource, "dataSource");
+
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(12);
+		assertThat(dataSource.getMinimumIdle()).isEqualTo(3);
+	}
+
+	private static HikariDataSource sized(MockEnvironment environment) {
+		HikariDataSource dataSource = new HikariDataSource();
+		new ConnectionPoolSizer(environment).postProcessBeforeInitialization(dataSource, "dataSource");
+		return dataSource;
+	}
+}
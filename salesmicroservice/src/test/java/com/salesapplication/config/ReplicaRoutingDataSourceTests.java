@@ -0,0 +1,107 @@
+package com.salesapplication.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routes between two in-memory H2 databases; the replica's lag is read from a table the test controls.
+ * SELECT DATABASE() tells which one a statement ran on.
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ReplicaRoutingDataSource routingDataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate readWrite;
+
+	private TransactionTemplate readOnly;
+
+	private JdbcTemplate replicaStatus;
+
+	@BeforeEach
+	void setUp() {
+		HikariDataSource primary = pool("primary");
+		HikariDataSource replica = pool("replica-1");
+		replicaStatus = new JdbcTemplate(replica);
+		replicaStatus.execute("CREATE TABLE replica_status (Seconds_Behind_Source INT)");
+		replicaStatus.update("INSERT INTO replica_status VALUES (0)");
+
+		routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(2),
+				"SELECT Seconds_Behind_Source FROM replica_status", "Seconds_Behind_Source", meterRegistry);
+		routingDataSource.afterPropertiesSet();
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		routingDataSource.destroy();
+	}
+
+	@Test
+	void readsStayOnPrimaryUntilFirstLagCheck() {
+		assertThat(readOnlyDatabase()).isEqualTo("PRIMARY");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToHealthyReplica() {
+		routingDataSource.checkLag();
+
+		assertThat(readOnlyDatabase()).isEqualTo("REPLICA-1");
+		assertThat(readWriteDatabase()).isEqualTo("PRIMARY");
+		assertThat(database()).isEqualTo("PRIMARY");
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		routingDataSource.checkLag();
+		replicaStatus.update("UPDATE replica_status SET Seconds_Behind_Source = 30");
+		routingDataSource.checkLag();
+
+		assertThat(readOnlyDatabase()).isEqualTo("PRIMARY");
+		assertThat(meterRegistry.get("sales.replica.fallback").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("sales.replica.lag").tag("replica", "replica-1").gauge().value()).isEqualTo(30);
+		assertThat(meterRegistry.get("sales.replica.healthy").tag("replica", "replica-1").gauge().value()).isZero();
+	}
+
+	private String readOnlyDatabase() {
+		return readOnly.execute(status -> database());
+	}
+
+	private String readWriteDatabase() {
+		return readWrite.execute(status -> database());
+	}
+
+	private String database() {
+		return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+	}
+
+	private static HikariDataSource pool(String name) {
+		HikariDataSource dataSource = new HikariDataSource();
+		// Dropped once the pool closes its last connection, so every test starts from empty databases
+		dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+		dataSource.setPoolName(name);
+		return dataSource;
+	}
+}
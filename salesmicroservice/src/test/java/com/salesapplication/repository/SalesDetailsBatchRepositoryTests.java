@@ -0,0 +1,69 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+
+/**
+ * Checks the batched detail writes, including generated keys and rows that do not exist.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:detailsbatch;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesDetailsBatchRepositoryTests {
+
+	@Autowired
+	private SalesDetailsRepository salesDetailsRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int saleId;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)",
+				1, Timestamp.valueOf(LocalDateTime.of(2024, 5, 1, 10, 0)), 300.0);
+		saleId = jdbcTemplate.queryForObject("SELECT MAX(sale_id) FROM sales", Integer.class);
+	}
+
+	@Test
+	void insertBatchReturnsGeneratedIdsInOrder() {
+		List<Integer> ids = salesDetailsRepository.insertBatch(List.of(row(0, 7, 100.0), row(0, 8, 200.0)));
+
+		assertThat(ids).hasSize(2).doesNotHaveDuplicates();
+		assertThat(jdbcTemplate.queryForObject("SELECT vehicle_id FROM sales_details WHERE sale_detail_id = ?",
+				Integer.class, ids.get(1))).isEqualTo(8);
+	}
+
+	@Test
+	void updateAndDeleteReportMissingRows() {
+		int id = salesDetailsRepository.insertBatch(List.of(row(0, 7, 100.0))).get(0);
+
+		assertThat(salesDetailsRepository.updateBatch(List.of(row(id, 9, 150.0), row(id + 1000, 9, 150.0))))
+				.containsExactly(1, 0);
+		assertThat(salesDetailsRepository.findSaleIdsByDetailIds(List.of(id, id + 1000))).containsOnlyKeys(id);
+		assertThat(salesDetailsRepository.deleteBatch(List.of(id, id))).containsExactly(1, 0);
+	}
+
+	@Test
+	void findExistingSaleIdsIgnoresUnknownSales() {
+		assertThat(salesDetailsRepository.findExistingSaleIds(List.of(saleId, saleId + 1000))).containsExactly(saleId);
+	}
+
+	private SalesDetailsDTO row(int saleDetailId, int vehicleId, double price) {
+		return new SalesDetailsDTO(saleDetailId, saleId, vehicleId, price, 1);
+	}
+}
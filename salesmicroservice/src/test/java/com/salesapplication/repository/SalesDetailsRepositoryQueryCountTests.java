@@ -0,0 +1,86 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the flat sales details reads: each must run a single SQL statement and hydrate
+ * no entities, so neither the sale nor the vehicle graph is loaded per row.
+ */
+// Hibernate builds the schema here, users and vehicles included, since these tests count its statements rather than check the migrations
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SalesDetailsRepositoryQueryCountTests {
+
+	private static final int SALES_COUNT = 10;
+
+	private static final int DETAILS_PER_SALE = 3;
+
+	@Autowired
+	private SalesDetailsRepository salesDetailsRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private int firstSaleId;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		for (int i = 1; i <= SALES_COUNT; i++) {
+			jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)",
+					i, Timestamp.valueOf(LocalDateTime.now().minusDays(i)), 1000.0 * i);
+			int saleId = jdbcTemplate.queryForObject("SELECT MAX(sale_id) FROM sales", Integer.class);
+			if (i == 1) {
+				firstSaleId = saleId;
+			}
+			for (int vehicleId = 1; vehicleId <= DETAILS_PER_SALE; vehicleId++) {
+				jdbcTemplate.update("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)",
+						saleId, vehicleId, 500.0, 1);
+			}
+		}
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findAllDtosRunsOneStatement() {
+		assertThat(salesDetailsRepository.findAllDtos()).hasSize(SALES_COUNT * DETAILS_PER_SALE);
+		assertSingleStatementWithoutEntities();
+	}
+
+	@Test
+	void findDtosBySaleIdRunsOneStatement() {
+		assertThat(salesDetailsRepository.findDtosBySaleId(firstSaleId))
+				.hasSize(DETAILS_PER_SALE)
+				.allSatisfy(detail -> assertThat(detail.getSaleId()).isEqualTo(firstSaleId));
+		assertSingleStatementWithoutEntities();
+	}
+
+	private void assertSingleStatementWithoutEntities() {
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getEntityFetchCount()).isZero();
+	}
+}
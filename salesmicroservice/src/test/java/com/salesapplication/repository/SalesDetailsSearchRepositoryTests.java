@@ -0,0 +1,78 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+
+/**
+ * Checks the sales details search filters, on the line and on its sale, and that keyset pages on
+ * (saleId, saleDetailId) neither skip nor repeat lines of one sale.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:detailssearch;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesDetailsSearchRepositoryTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+	@Autowired
+	private SalesDetailsRepository salesDetailsRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		// Sales 1-5, one per day; odd sales are user 1's. Each has a line for vehicle 7 and one for vehicle 8
+		for (int i = 1; i <= 5; i++) {
+			jdbcTemplate.update("INSERT INTO sales (sale_id, user_id, sale_date, total_amount) VALUES (?, ?, ?, ?)",
+					i, i % 2 == 1 ? 1 : 2, Timestamp.valueOf(START.plusDays(i - 1)), 100.0 * i);
+			jdbcTemplate.update("INSERT INTO sales_details (sale_detail_id, sale_id, vehicle_id, price, vehicle_count) "
+					+ "VALUES (?, ?, 7, ?, 1), (?, ?, 8, ?, 1)", 2 * i - 1, i, 40.0 * i, 2 * i, i, 60.0 * i);
+		}
+	}
+
+	@Test
+	void filtersCombineOnLineAndSale() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria(START.plusDays(1), START.plusDays(4), 200.0, 400.0, 7, 1);
+
+		assertThat(salesDetailsRepository.search(criteria, 0, 0, 100))
+				.extracting(SalesDetailsDTO::getSaleDetailId)
+				.containsExactly(5);
+		assertThat(salesDetailsRepository.count(new SalesSearchCriteria(null, null, null, null, 8, null))).isEqualTo(5);
+	}
+
+	@Test
+	void keysetPagesCoverEveryLineOnce() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria();
+
+		List<SalesDetailsDTO> first = salesDetailsRepository.search(criteria, 0, 0, 3);
+		SalesDetailsDTO last = first.get(first.size() - 1);
+		List<SalesDetailsDTO> second = salesDetailsRepository.search(criteria, last.getSaleId(), last.getSaleDetailId(), 3);
+
+		// Line 4 belongs to line 3's sale, so the cursor must fall back to the sale detail ID
+		assertThat(first).extracting(SalesDetailsDTO::getSaleDetailId).containsExactly(1, 2, 3);
+		assertThat(second).extracting(SalesDetailsDTO::getSaleDetailId).containsExactly(4, 5, 6);
+	}
+
+	@Test
+	void findSaleDatesStopsAtLimit() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria(null, null, null, null, 8, null);
+
+		assertThat(salesDetailsRepository.findSaleDates(criteria, 3))
+				.containsExactly(START, START.plusDays(1), START.plusDays(2));
+	}
+}
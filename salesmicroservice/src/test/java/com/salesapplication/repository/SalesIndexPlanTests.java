@@ -0,0 +1,62 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Runs the Flyway migrations and checks with EXPLAIN that the sales access patterns are served by
+ * the covering indexes. The statements mirror the SQL Hibernate generates for the repository queries.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:indexplans;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Seeded once per class: ANALYZE commits, so rows inserted per test would outlive the test's rollback
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS, statements = {
+		"INSERT INTO sales (sale_id, user_id, sale_date, total_amount) "
+				+ "SELECT X, MOD(X, 20) + 1, DATEADD('HOUR', X, TIMESTAMP '2024-01-01 09:00:00'), 100.0 * X FROM SYSTEM_RANGE(1, 200)",
+		"INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) "
+				+ "SELECT X, MOD(X, 7) + 1, 100.0 * X, 1 FROM SYSTEM_RANGE(1, 200)",
+		"ANALYZE"
+})
+class SalesIndexPlanTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void salesByUserUseUserIndex() {
+		assertThat(plan("SELECT s.sale_id, s.total_amount, s.user_id, s.sale_date FROM sales s "
+				+ "WHERE s.user_id = 3 ORDER BY s.sale_id"))
+				.containsIgnoringCase("idx_sales_user_covering");
+	}
+
+	@Test
+	void saleDateRangeUsesDateIndex() {
+		assertThat(plan("SELECT s.sale_id, s.user_id, s.total_amount FROM sales s "
+				+ "WHERE s.sale_date >= TIMESTAMP '2024-01-02 00:00:00' AND s.sale_date < TIMESTAMP '2024-01-03 00:00:00'"))
+				.containsIgnoringCase("idx_sales_date_covering");
+	}
+
+	@Test
+	void detailsBySaleUseSaleIndex() {
+		assertThat(plan("SELECT d.sale_detail_id, d.sale_id, d.vehicle_id, d.price, d.vehicle_count FROM sales_details d "
+				+ "WHERE d.sale_id = 5 ORDER BY d.sale_detail_id"))
+				.containsIgnoringCase("idx_sales_details_sale_covering");
+	}
+
+	@Test
+	void supersededSaleDateIndexIsDropped() {
+		Integer remaining = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) = 'idx_sales_sale_date'", Integer.class);
+		assertThat(remaining).isZero();
+	}
+
+	private String plan(String sql) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+	}
+}
@@ -0,0 +1,71 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Migrates databases as an earlier release left them with ddl-auto=update, baselined at V1 the way
+ * application.properties configures Flyway.
+ */
+class SalesMigrationBaselineTests {
+
+	@Test
+	void preMigrationDatabaseGetsSummaryRollupAndIndexes() {
+		JdbcTemplate jdbcTemplate = preMigrationDatabase("baseline_original");
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (4, TIMESTAMP '2024-02-01 10:00:00', 100.0)");
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (4, TIMESTAMP '2024-02-03 10:00:00', 50.0)");
+
+		migrate(jdbcTemplate);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT sale_count FROM user_sales_summary WHERE user_id = 4", Long.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT total_spend FROM user_sales_summary WHERE user_id = 4", Double.class)).isEqualTo(150.0);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_rollup", Integer.class)).isZero();
+		assertThat(hasIndex(jdbcTemplate, "idx_sales_date_covering")).isTrue();
+	}
+
+	@Test
+	void laterReleaseDatabaseKeepsItsTablesAndLosesSupersededIndex() {
+		JdbcTemplate jdbcTemplate = preMigrationDatabase("baseline_later");
+		jdbcTemplate.execute("CREATE INDEX idx_sales_sale_date ON sales (sale_date)");
+		jdbcTemplate.execute("CREATE TABLE user_sales_summary (user_id INT NOT NULL, sale_count BIGINT NOT NULL, "
+				+ "total_spend DOUBLE NOT NULL, last_purchase_at DATETIME(6), PRIMARY KEY (user_id))");
+		jdbcTemplate.update("INSERT INTO user_sales_summary VALUES (9, 3, 300.0, NULL)");
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (4, TIMESTAMP '2024-02-01 10:00:00', 100.0)");
+
+		migrate(jdbcTemplate);
+
+		// The summary table was already maintained, so it is not reseeded
+		assertThat(jdbcTemplate.queryForList("SELECT user_id FROM user_sales_summary", Integer.class)).containsExactly(9);
+		assertThat(hasIndex(jdbcTemplate, "idx_sales_sale_date")).isFalse();
+		assertThat(hasIndex(jdbcTemplate, "idx_sales_date_covering")).isTrue();
+	}
+
+	private static JdbcTemplate preMigrationDatabase(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE sales (sale_id INT NOT NULL AUTO_INCREMENT, user_id INT NOT NULL, "
+				+ "sale_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, total_amount DOUBLE NOT NULL, PRIMARY KEY (sale_id))");
+		jdbcTemplate.execute("CREATE TABLE sales_details (sale_detail_id INT NOT NULL AUTO_INCREMENT, sale_id INT NOT NULL, "
+				+ "vehicle_id INT NOT NULL, price DOUBLE NOT NULL, vehicle_count DOUBLE NOT NULL, PRIMARY KEY (sale_detail_id))");
+		return jdbcTemplate;
+	}
+
+	private static void migrate(JdbcTemplate jdbcTemplate) {
+		Flyway.configure()
+				.dataSource(jdbcTemplate.getDataSource())
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.load()
+				.migrate();
+	}
+
+	private static boolean hasIndex(JdbcTemplate jdbcTemplate, String index) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) = ?",
+				Integer.class, index) > 0;
+	}
+}
@@ -0,0 +1,95 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.repository.SalesRepository.SaleRecordsResult;
+
+/**
+ * Checks that the sale written by insert_sale_records is identified by the ID the procedure answers with,
+ * not by whatever the connection inserted last.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:insertsalerecords;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesRepositoryInsertSaleRecordsTests {
+
+	@Autowired
+	private SalesRepository salesRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS insert_sale_records FOR '"
+				+ Procedure.class.getName() + ".insertSaleRecords'");
+	}
+
+	@Test
+	void answersWithTheSaleItWrote() {
+		SaleRecordsResult result = salesRepository.insertSaleRecords(1, "[{\"vehicleId\":4,\"count\":1}]");
+
+		assertThat(result.getErrorMessage()).isEqualTo("success");
+		assertThat(salesRepository.findDtoById(result.getSaleId()))
+				.hasValueSatisfying(sale -> assertThat(sale.getSalePrice()).isEqualTo(300.0));
+	}
+
+	@Test
+	void answersWithoutSaleWhenOrderIsRefused() {
+		SaleRecordsResult result = salesRepository.insertSaleRecords(1, "[]");
+
+		assertThat(result.getErrorMessage()).contains("Insufficient inventory");
+		assertThat(result.getSaleId()).isNull();
+	}
+
+	/** H2 stand-in for the procedure: writes the sale and its detail row and answers with the sale's ID. */
+	public static class Procedure {
+
+		public static ResultSet insertSaleRecords(Connection connection, int userId, String vehicleDataJson,
+				String errorMessage) throws Exception {
+			SimpleResultSet result = new SimpleResultSet();
+			result.addColumn("errorMessage", Types.VARCHAR, 255, 0);
+			result.addColumn("saleId", Types.INTEGER, 10, 0);
+			// H2 first calls the function without arguments to learn its columns
+			if (connection.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+				return result;
+			}
+			if (vehicleDataJson.equals("[]")) {
+				result.addRow("Insufficient inventory for vehicle 4", null);
+				return result;
+			}
+			int saleId;
+			try (PreparedStatement insertSale = connection.prepareStatement(
+					"INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, CURRENT_TIMESTAMP, 300.0)",
+					Statement.RETURN_GENERATED_KEYS)) {
+				insertSale.setInt(1, userId);
+				insertSale.executeUpdate();
+				try (ResultSet keys = insertSale.getGeneratedKeys()) {
+					keys.next();
+					saleId = keys.getInt(1);
+				}
+			}
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) "
+						+ "VALUES (" + saleId + ", 4, 300.0, 1)");
+			}
+			result.addRow("success", saleId);
+			return result;
+		}
+	}
+}
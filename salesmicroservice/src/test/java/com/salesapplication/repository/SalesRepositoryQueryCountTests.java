@@ -0,0 +1,79 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the sales list read paths against N+1 regressions: each one must run a single
+ * SQL statement and hydrate no entities, however many rows and users are involved.
+ */
+// Hibernate builds the schema here, users and vehicles included, since these tests count its statements rather than check the migrations
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SalesRepositoryQueryCountTests {
+
+	private static final int SALES_COUNT = 25;
+
+	@Autowired
+	private SalesRepository salesRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		// Users live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		for (int i = 1; i <= SALES_COUNT; i++) {
+			jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)",
+					i % 5 + 1, Timestamp.valueOf(LocalDateTime.now().minusDays(i)), 1000.0 * i);
+		}
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findAllDtosRunsOneStatement() {
+		assertThat(salesRepository.findAllDtos()).hasSize(SALES_COUNT);
+		assertSingleStatementWithoutEntities();
+	}
+
+	@Test
+	void findDtosByUserIdRunsOneStatement() {
+		assertThat(salesRepository.findDtosByUserId(1)).hasSize(SALES_COUNT / 5);
+		assertSingleStatementWithoutEntities();
+	}
+
+	@Test
+	void findDtoPageAfterRunsOneStatement() {
+		assertThat(salesRepository.findDtoPageAfter(0, PageRequest.of(0, 10))).hasSize(10);
+		assertSingleStatementWithoutEntities();
+	}
+
+	private void assertSingleStatementWithoutEntities() {
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getEntityFetchCount()).isZero();
+	}
+}
@@ -0,0 +1,109 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.dto.SalesRollupDTO;
+import com.salesapplication.repository.SalesRollupRepository.Dimension;
+
+/**
+ * Checks that rolled-up days match the live aggregate they are written from.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:rollup;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SalesRollupRepository.class)
+class SalesRollupRepositoryTests {
+
+	private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+	@Autowired
+	private SalesRollupRepository rollupRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		int first = insertSale(1, DAY.atTime(9, 0), 300.0);
+		insertDetail(first, 7, 100.0, 1);
+		insertDetail(first, 8, 200.0, 2);
+		int second = insertSale(2, DAY.atTime(23, 59, 59), 150.0);
+		insertDetail(second, 7, 150.0, 1);
+		int nextDay = insertSale(1, DAY.plusDays(1).atStartOfDay(), 50.0);
+		insertDetail(nextDay, 8, 50.0, 1);
+	}
+
+	@Test
+	void aggregateCountsEachSaleTotalOnce() {
+		List<SalesRollupDTO> days = rollupRepository.aggregate(Dimension.ALL, DAY, DAY.plusDays(2));
+
+		assertThat(days).extracting(SalesRollupDTO::getBucket).containsExactly(DAY, DAY.plusDays(1));
+		assertRollup(days.get(0), 0, 2, 4.0, 450.0);
+		assertRollup(days.get(1), 0, 1, 1.0, 50.0);
+	}
+
+	@Test
+	void aggregateByVehicleUsesDetailLines() {
+		List<SalesRollupDTO> days = rollupRepository.aggregate(Dimension.VEHICLE, DAY, DAY.plusDays(1));
+
+		assertThat(days).hasSize(2);
+		assertRollup(days.stream().filter(d -> d.getDimensionId() == 7).findFirst().orElseThrow(), 7, 2, 2.0, 250.0);
+		assertRollup(days.stream().filter(d -> d.getDimensionId() == 8).findFirst().orElseThrow(), 8, 1, 2.0, 200.0);
+	}
+
+	@Test
+	void rollUpStoresWhatAggregateComputes() {
+		rollupRepository.rollUp(DAY, DAY.plusDays(2));
+
+		assertThat(rollupRepository.findLastRolledUpDay()).isEqualTo(DAY.plusDays(1));
+		for (Dimension dimension : Dimension.values()) {
+			assertThat(rollupRepository.findRollups(dimension, null, DAY, DAY.plusDays(2)))
+					.usingRecursiveFieldByFieldElementComparator()
+					.containsExactlyInAnyOrderElementsOf(rollupRepository.aggregate(dimension, DAY, DAY.plusDays(2)));
+		}
+		assertThat(rollupRepository.findRollups(Dimension.USER, 1, DAY, DAY.plusDays(2)))
+				.extracting(SalesRollupDTO::getRevenue).containsExactly(300.0, 50.0);
+	}
+
+	@Test
+	void rollUpReplacesChangedDay() {
+		rollupRepository.rollUp(DAY, DAY.plusDays(1));
+		jdbcTemplate.update("UPDATE sales SET total_amount = 500.0 WHERE user_id = 2");
+
+		rollupRepository.rollUp(DAY, DAY.plusDays(1));
+
+		assertRollup(rollupRepository.findRollups(Dimension.ALL, null, DAY, DAY.plusDays(1)).get(0), 0, 2, 4.0, 800.0);
+	}
+
+	private int insertSale(int userId, LocalDateTime saleDate, double amount) {
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)",
+				userId, Timestamp.valueOf(saleDate), amount);
+		return jdbcTemplate.queryForObject("SELECT MAX(sale_id) FROM sales", Integer.class);
+	}
+
+	private void insertDetail(int saleId, int vehicleId, double price, double vehicleCount) {
+		jdbcTemplate.update("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)",
+				saleId, vehicleId, price, vehicleCount);
+	}
+
+	private static void assertRollup(SalesRollupDTO rollup, int dimensionId, long saleCount, double units, double revenue) {
+		assertThat(rollup.getDimensionId()).isEqualTo(dimensionId);
+		assertThat(rollup.getSaleCount()).isEqualTo(saleCount);
+		assertThat(rollup.getUnits()).isEqualTo(units);
+		assertThat(rollup.getRevenue()).isEqualTo(revenue);
+	}
+}
@@ -0,0 +1,76 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.dto.SalesDTO;
+import com.salesapplication.dto.SalesSearchCriteria;
+
+/**
+ * Checks the search filters and that keyset pages on (saleDate, saleId) neither skip nor repeat sales
+ * sharing a sale date.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:salessearch;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesSearchRepositoryTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+	@Autowired
+	private SalesRepository salesRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Users and vehicles live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		// Sales 1-10, two per day; odd sales are user 1's and include vehicle 7
+		for (int i = 1; i <= 10; i++) {
+			jdbcTemplate.update("INSERT INTO sales (sale_id, user_id, sale_date, total_amount) VALUES (?, ?, ?, ?)",
+					i, i % 2 == 1 ? 1 : 2, Timestamp.valueOf(START.plusDays((i - 1) / 2)), 100.0 * i);
+			jdbcTemplate.update("INSERT INTO sales_details (sale_id, vehicle_id, price, vehicle_count) VALUES (?, ?, ?, ?)",
+					i, i % 2 == 1 ? 7 : 8, 100.0 * i, 1);
+		}
+	}
+
+	@Test
+	void filtersCombine() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria(START.plusDays(1), START.plusDays(4), 300.0, 700.0, 7, 1);
+
+		assertThat(salesRepository.search(criteria, null, 0, 100)).extracting(SalesDTO::getSaleId).containsExactly(3, 5, 7);
+		assertThat(salesRepository.count(criteria)).isEqualTo(3);
+	}
+
+	@Test
+	void keysetPagesCoverEverySaleOnce() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria();
+
+		List<SalesDTO> first = salesRepository.search(criteria, null, 0, 3);
+		SalesDTO last = first.get(first.size() - 1);
+		List<SalesDTO> second = salesRepository.search(criteria, last.getSaleDate(), last.getSaleId(), 3);
+
+		assertThat(first).extracting(SalesDTO::getSaleId).containsExactly(1, 2, 3);
+		// Sale 4 shares sale 3's date, so the cursor must fall back to the sale ID
+		assertThat(second).extracting(SalesDTO::getSaleId).containsExactly(4, 5, 6);
+	}
+
+	@Test
+	void findSaleDatesStopsAtLimit() {
+		SalesSearchCriteria criteria = new SalesSearchCriteria(null, null, null, null, 8, null);
+
+		assertThat(salesRepository.findSaleDates(criteria, 3))
+				.containsExactly(START, START.plusDays(1), START.plusDays(2));
+	}
+}
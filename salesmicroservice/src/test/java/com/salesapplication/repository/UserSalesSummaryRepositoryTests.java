@@ -0,0 +1,89 @@
+package com.salesapplication.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesapplication.model.UserSalesSummary;
+
+/**
+ * Checks the summary deltas against a recompute from the sales table. Runs H2 in MySQL mode
+ * because the upsert relies on ON DUPLICATE KEY UPDATE.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:summary;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserSalesSummaryRepositoryTests {
+
+	private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 10, 9, 0);
+	private static final LocalDateTime SECOND = LocalDateTime.of(2024, 2, 20, 15, 30);
+
+	@Autowired
+	private UserSalesSummaryRepository summaryRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Users live in the inventory service; only the sales rows matter here
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		insertSale(1, FIRST, 100.0);
+		insertSale(1, SECOND, 250.0);
+		insertSale(2, FIRST, 40.0);
+	}
+
+	@Test
+	void addSaleCreatesThenAccumulates() {
+		summaryRepository.addSale(1, 100.0, FIRST);
+		summaryRepository.addSale(1, 250.0, SECOND);
+
+		assertSummary(1, 2, 350.0, SECOND);
+	}
+
+	@Test
+	void addSaleKeepsLatestPurchaseWhenOlderSaleArrivesLate() {
+		summaryRepository.addSale(1, 250.0, SECOND);
+		summaryRepository.addSale(1, 100.0, FIRST);
+
+		assertSummary(1, 2, 350.0, SECOND);
+	}
+
+	@Test
+	void removeSaleFallsBackToPreviousPurchase() {
+		assertThat(summaryRepository.insertAllFromSales()).isEqualTo(2);
+		jdbcTemplate.update("DELETE FROM sales WHERE user_id = 1 AND total_amount = 250.0");
+
+		summaryRepository.removeSale(1, 250.0);
+
+		assertSummary(1, 1, 100.0, FIRST);
+	}
+
+	@Test
+	void adjustTotalSpendAppliesPriceChange() {
+		summaryRepository.insertFromSales(2);
+
+		summaryRepository.adjustTotalSpend(2, 15.0);
+
+		assertSummary(2, 1, 55.0, FIRST);
+	}
+
+	private void insertSale(int userId, LocalDateTime saleDate, double amount) {
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (?, ?, ?)",
+				userId, Timestamp.valueOf(saleDate), amount);
+	}
+
+	private void assertSummary(int userId, long saleCount, double totalSpend, LocalDateTime lastPurchaseAt) {
+		UserSalesSummary summary = summaryRepository.findById(userId).orElseThrow();
+		assertThat(summary.getSaleCount()).isEqualTo(saleCount);
+		assertThat(summary.getTotalSpend()).isEqualTo(totalSpend);
+		assertThat(summary.getLastPurchaseAt()).isEqualTo(lastPurchaseAt);
+	}
+}
@@ -0,0 +1,92 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.salesapplication.config.SalesCacheConfig;
+import com.salesapplication.dto.SalesDetailsDTO;
+import com.salesapplication.repository.SalesRollupRepository;
+
+/**
+ * Checks that a failed sales details batch is replayed row by row, and that only committed rows are reported
+ * as written.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:bulkdetails;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BulkSalesDetailsService.class, SavepointTemplate.class, SalesAnalyticsService.class, SalesRollupRepository.class,
+		BulkSalesDetailsServiceTests.Caches.class})
+// Each chunk commits on its own, as it does in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkSalesDetailsServiceTests {
+
+	// Rows for this vehicle are refused by the database, failing any batch that contains one
+	private static final int REFUSED_VEHICLE_ID = 13;
+
+	@Autowired
+	private BulkSalesDetailsService bulkSalesDetailsService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int saleId;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		jdbcTemplate.update("DELETE FROM sales_details");
+		jdbcTemplate.update("DELETE FROM sales");
+		jdbcTemplate.execute("ALTER TABLE sales_details DROP CONSTRAINT IF EXISTS ck_refused_vehicle");
+		jdbcTemplate.execute("ALTER TABLE sales_details ADD CONSTRAINT ck_refused_vehicle CHECK (vehicle_id <> "
+				+ REFUSED_VEHICLE_ID + ")");
+		jdbcTemplate.update("INSERT INTO sales (user_id, sale_date, total_amount) VALUES (1, CURRENT_TIMESTAMP, 300.0)");
+		saleId = jdbcTemplate.queryForObject("SELECT MAX(sale_id) FROM sales", Integer.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedBatchIsReplayedRowByRow() {
+		Map<String, Object> response = bulkSalesDetailsService.createSalesDetailsBulk(List.of(
+				detail(1), detail(REFUSED_VEHICLE_ID), detail(2)));
+
+		assertThat(response).containsEntry("status", "partial").containsEntry("succeeded", 2L);
+		List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+		assertThat(results).extracting(result -> result.get("status")).containsExactly("success", "error", "success");
+		assertThat((String) results.get(1).get("message")).startsWith("Database error");
+		// Only rows that were committed report an ID
+		assertThat(results.get(1).get("saleDetailId")).isNull();
+
+		List<Integer> stored = jdbcTemplate.queryForList(
+				"SELECT sale_detail_id FROM sales_details ORDER BY vehicle_id", Integer.class);
+		assertThat(stored).containsExactly(
+				(Integer) results.get(0).get("saleDetailId"), (Integer) results.get(2).get("saleDetailId"));
+	}
+
+	private SalesDetailsDTO detail(int vehicleId) {
+		return new SalesDetailsDTO(0, saleId, vehicleId, 100.0, 1);
+	}
+
+	@TestConfiguration
+	static class Caches {
+
+		@Bean
+		CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager(SalesCacheConfig.SALES_DETAILS_BY_SALE_ID);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestTemplate;
+
+import com.salesapplication.model.SaleOrderRequest;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Writes bulk chunks through the JDBC order write engine and checks that an order the engine rejects is
+ * rolled back to its savepoint while the rest of its chunk commits.
+ */
+// Hibernate builds the schema here, since the engine locks rows of the inventory service's vehicles table
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:bulksales;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"salesWrite.engine=jdbc",
+		"userServiceUrl=http://users/users/",
+		"vehicleServiceUrl=http://vehicles/vehicles/"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BulkSalesService.class, SavepointTemplate.class, SaleRecordWriter.class, JdbcOrderWriteEngine.class,
+		VehicleAdmissionControl.class, VehicleAvailabilityCache.class, UserLookupCache.class, SaleStageTimers.class,
+		BulkSalesServiceTests.StubServices.class})
+// The chunk must own its transaction, as it does in production, for a rejected order to be able to spoil the commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkSalesServiceTests {
+
+	@Autowired
+	private BulkSalesService bulkSalesService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM sales_details");
+		jdbcTemplate.update("DELETE FROM sales");
+		jdbcTemplate.update("DELETE FROM user_sales_summary");
+		jdbcTemplate.update("DELETE FROM vehicles");
+		jdbcTemplate.update("DELETE FROM users");
+		jdbcTemplate.update("INSERT INTO users (user_id, name) VALUES (1, 'buyer')");
+		jdbcTemplate.update("INSERT INTO vehicles (vehicle_id, price, available_count) VALUES (1, 100.0, 5)");
+		jdbcTemplate.update("INSERT INTO vehicles (vehicle_id, price, available_count) VALUES (2, 200.0, 1)");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void outOfStockOrderFailsAloneInItsChunk() {
+		Map<String, Object> response = bulkSalesService.addSalesBulk(List.of(
+				order(vehicle(1, 2)),
+				order(vehicle(1, 1), vehicle(2, 3)),
+				order(vehicle(1, 1))).iterator());
+
+		assertThat(response).containsEntry("status", "partial").containsEntry("succeeded", 2L);
+		List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+		assertThat(results).extracting(result -> result.get("status")).containsExactly("success", "error", "success");
+		assertThat((String) results.get(1).get("message")).contains("Insufficient inventory for vehicle ID 2");
+
+		// The rejected order took nothing out of stock, not even the vehicle it could have had
+		assertThat(availableCount(1)).isEqualTo(2);
+		assertThat(availableCount(2)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_details", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT sale_count FROM user_sales_summary WHERE user_id = 1", Integer.class))
+				.isEqualTo(2);
+	}
+
+	private int availableCount(int vehicleId) {
+		return jdbcTemplate.queryForObject("SELECT available_count FROM vehicles WHERE vehicle_id = ?", Integer.class, vehicleId);
+	}
+
+	private static SaleOrderRequest order(VehiclePurchaseRequest... vehicles) {
+		SaleOrderRequest order = new SaleOrderRequest();
+		order.setUserId(1);
+		order.setVehicles(List.of(vehicles));
+		return order;
+	}
+
+	private static VehiclePurchaseRequest vehicle(int vehicleId, int count) {
+		VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+		vehicle.setVehicleId(vehicleId);
+		vehicle.setCount(count);
+		return vehicle;
+	}
+
+	/**
+	 * Answers the user and vehicle lookups; the vehicle service reports plenty of stock, so only the engine
+	 * can turn an order down.
+	 */
+	@TestConfiguration
+	static class StubServices {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		RestTemplate restTemplate() {
+			return new RestTemplate((uri, httpMethod) -> {
+				String id = uri.getPath().substring(uri.getPath().lastIndexOf('/') + 1);
+				String body = "users".equals(uri.getHost())
+						? "{\"userId\":" + id + ",\"name\":\"buyer\"}"
+						: "{\"vehicleId\":" + id + ",\"availableCount\":100}";
+				MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+				MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+				response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+				request.setResponse(response);
+				return request;
+			});
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Checks that an order is processed once per key, and that only kept responses are replayed.
+ */
+class IdempotencyStoreTests {
+
+	private static final String ADD_SALES = "/sales/addsales";
+
+	private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper(), new SimpleMeterRegistry(),
+			100, Duration.ofMinutes(5), Duration.ofMillis(200));
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void replaysResponseWithoutRunningAgain() {
+		ResponseEntity<Map<String, Object>> first = store.execute(ADD_SALES, "key-1", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+		ResponseEntity<Map<String, Object>> retry = store.execute(ADD_SALES, "key-1", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+
+		assertThat(calls).hasValue(1);
+		assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(retry.getBody()).isEqualTo(first.getBody());
+		assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	void rejectsKeyReusedForDifferentRequest() {
+		store.execute(ADD_SALES, "key-2", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+
+		ResponseEntity<Map<String, Object>> reused = store.execute(ADD_SALES, "key-2", Map.of("userId", 2), () -> respond(HttpStatus.OK)).join();
+
+		assertThat(calls).hasValue(1);
+		assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@Test
+	void keepsClientErrorsButNotServerErrors() {
+		store.execute(ADD_SALES, "key-3", Map.of("userId", 1), () -> respond(HttpStatus.BAD_REQUEST)).join();
+		store.execute(ADD_SALES, "key-3", Map.of("userId", 1), () -> respond(HttpStatus.BAD_REQUEST)).join();
+		store.execute(ADD_SALES, "key-4", Map.of("userId", 1), () -> respond(HttpStatus.INTERNAL_SERVER_ERROR)).join();
+		ResponseEntity<Map<String, Object>> retried = store.execute(ADD_SALES, "key-4", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+
+		assertThat(calls).hasValue(3);
+		assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void concurrentDuplicateWaitsForFirstRequest() {
+		CompletableFuture<ResponseEntity<Map<String, Object>>> inFlight = new CompletableFuture<>();
+		CompletableFuture<ResponseEntity<Map<String, Object>>> first = store.execute(ADD_SALES, "key-5", Map.of("userId", 1), () -> inFlight);
+		CompletableFuture<ResponseEntity<Map<String, Object>>> duplicate = store.execute(ADD_SALES, "key-5", Map.of("userId", 1), () -> respond(HttpStatus.OK));
+
+		assertThat(duplicate).isNotDone();
+		inFlight.complete(ResponseEntity.ok(Map.of("status", "success")));
+
+		assertThat(first.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(duplicate.join().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(calls).hasValue(0);
+	}
+
+	@Test
+	void duplicateGetsConflictWhenFirstRequestOutlastsWait() {
+		store.execute(ADD_SALES, "key-6", Map.of("userId", 1), CompletableFuture::new);
+
+		ResponseEntity<Map<String, Object>> duplicate = store.execute(ADD_SALES, "key-6", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+
+		assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+	}
+
+	@Test
+	void sameKeyOnAnotherEndpointIsNotReplayed() {
+		store.execute(ADD_SALES, "key-7", Map.of("userId", 1), () -> respond(HttpStatus.OK)).join();
+
+		ResponseEntity<Map<String, Object>> queued = store.execute("/sales/addsales/async", "key-7", Map.of("userId", 1),
+				() -> respond(HttpStatus.ACCEPTED)).join();
+
+		assertThat(calls).hasValue(2);
+		assertThat(queued.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(queued.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isNull();
+	}
+
+	private CompletableFuture<ResponseEntity<Map<String, Object>>> respond(HttpStatus status) {
+		calls.incrementAndGet();
+		return CompletableFuture.completedFuture(ResponseEntity.status(status).body(Map.of("status", "call " + calls.get())));
+	}
+}
@@ -0,0 +1,218 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Holds a vehicle while concurrent orders for it arrive, and checks that they are then written together in
+ * one transaction, each with its own outcome, and that an order does not wait on a stuck leader for longer
+ * than the lock timeout.
+ */
+// Hibernate builds the schema here, since the engine locks rows of the inventory service's vehicles table
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:coalescer;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"salesWrite.engine=jdbc",
+		"vehicleServiceUrl=http://vehicles/vehicles/",
+		"vehicleAdmission.lockTimeout=2s"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderCoalescer.class, SavepointTemplate.class, SaleRecordWriter.class, JdbcOrderWriteEngine.class,
+		VehicleAdmissionControl.class, VehicleAvailabilityCache.class, SaleStageTimers.class,
+		OrderCoalescerTests.Meters.class})
+// Each group owns its transaction, as it does in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderCoalescerTests {
+
+	private static final int ORDERS = 6;
+
+	@Autowired
+	private OrderCoalescer orderCoalescer;
+
+	@Autowired
+	private VehicleAdmissionControl vehicleAdmission;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ExecutorService buyers = Executors.newFixedThreadPool(ORDERS);
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM sales_details");
+		jdbcTemplate.update("DELETE FROM sales");
+		jdbcTemplate.update("DELETE FROM user_sales_summary");
+		jdbcTemplate.update("DELETE FROM vehicles");
+		jdbcTemplate.update("DELETE FROM users");
+		jdbcTemplate.update("INSERT INTO users (user_id, name) VALUES (1, 'buyer')");
+		jdbcTemplate.update("INSERT INTO vehicles (vehicle_id, price, available_count) VALUES (1, 100.0, 5)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		buyers.shutdownNow();
+	}
+
+	@Test
+	void concurrentOrdersForSameVehicleShareOneTransaction() throws InterruptedException {
+		// Another order holds the vehicle while the buyers arrive, so they all queue behind one leader
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try (VehicleAdmissionControl.Admission held = vehicleAdmission.admit(List.of(vehicle(1)))) {
+				locked.countDown();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.start();
+		locked.await();
+
+		List<CompletableFuture<Void>> orders = new ArrayList<>();
+		try {
+			for (int i = 0; i < ORDERS; i++) {
+				orders.add(CompletableFuture.runAsync(() -> orderCoalescer.write(1, List.of(vehicle(1))), buyers));
+			}
+			while (meterRegistry.get("sales.admission.waiting").gauge().value() < ORDERS) {
+				Thread.sleep(10);
+			}
+		} finally {
+			release.countDown();
+			holder.join();
+		}
+
+		long failed = orders.stream()
+				.filter(order -> order.handle((result, e) -> e != null).join())
+				.count();
+		// One more order than there is stock: the last one is rejected alone
+		assertThat(failed).isEqualTo(1);
+		assertThat(orders.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst().orElseThrow()
+				.handle((result, e) -> e.getCause()).join())
+				.isInstanceOf(InsufficientInventoryException.class);
+		assertThat(meterRegistry.get("sales.admission.coalesced").counter().count()).isEqualTo(ORDERS - 1);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT available_count FROM vehicles WHERE vehicle_id = 1", Integer.class))
+				.isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales", Integer.class)).isEqualTo(ORDERS - 1);
+	}
+
+	@Test
+	void orderGivesUpOnLeaderStuckInDatabase() throws InterruptedException {
+		// Vehicle 1 may be left sold out by the other test; another order holds this vehicle while two buyers
+		// queue, so the second joins the first's group
+		jdbcTemplate.update("INSERT INTO vehicles (vehicle_id, price, available_count) VALUES (2, 100.0, 5)");
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try (VehicleAdmissionControl.Admission held = vehicleAdmission.admit(List.of(vehicle(2)))) {
+				locked.countDown();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.start();
+		locked.await();
+
+		// A writer outside this service holds the vehicle's row, so the leader blocks on it once admitted
+		CountDownLatch rowLocked = new CountDownLatch(1);
+		CountDownLatch releaseRow = new CountDownLatch(1);
+		Thread rowHolder = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbcTemplate.queryForObject("SELECT available_count FROM vehicles WHERE vehicle_id = 2 FOR UPDATE", Integer.class);
+			rowLocked.countDown();
+			try {
+				releaseRow.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		rowHolder.start();
+		rowLocked.await();
+
+		CompletableFuture<Void> leader;
+		CompletableFuture<Void> joiner;
+		try {
+			leader = CompletableFuture.runAsync(() -> orderCoalescer.write(1, List.of(vehicle(2))), buyers);
+			while (meterRegistry.get("sales.admission.waiting").gauge().value() < 1) {
+				Thread.sleep(10);
+			}
+			joiner = CompletableFuture.runAsync(() -> orderCoalescer.write(1, List.of(vehicle(2))), buyers);
+			while (meterRegistry.get("sales.admission.waiting").gauge().value() < 2) {
+				Thread.sleep(10);
+			}
+		} finally {
+			release.countDown();
+			holder.join();
+		}
+
+		try {
+			assertThat(joiner.handle((result, e) -> e.getCause()).join()).hasMessageContaining("busy");
+		} finally {
+			releaseRow.countDown();
+			rowHolder.join();
+		}
+		assertThat(leader.handle((result, e) -> e).join()).isNull();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales", Integer.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT available_count FROM vehicles WHERE vehicle_id = 2", Integer.class))
+				.isEqualTo(4);
+	}
+
+	private static VehiclePurchaseRequest vehicle(int vehicleId) {
+		VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+		vehicle.setVehicleId(vehicleId);
+		vehicle.setCount(1);
+		return vehicle;
+	}
+
+	/**
+	 * Supplies the meters; the vehicle service is never called, as no counts are preloaded.
+	 */
+	@TestConfiguration
+	static class Meters {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		RestTemplate restTemplate() {
+			return new RestTemplate();
+		}
+	}
+}
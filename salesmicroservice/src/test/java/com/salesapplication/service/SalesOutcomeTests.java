@@ -0,0 +1,44 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.exception.UserNotFoundException;
+import com.salesapplication.exception.UserServiceException;
+
+/**
+ * Checks that failures surfacing from the sale write path land in the right outcome class,
+ * including when they arrive wrapped by the service layer.
+ */
+class SalesOutcomeTests {
+
+	@Test
+	void classifiesByFirstRecognisedCause() {
+		assertThat(SalesOutcome.of(new UserNotFoundException(7))).isEqualTo(SalesOutcome.USER_NOT_FOUND);
+		assertThat(SalesOutcome.of(new RuntimeException("Failed to fetch sales data for user ID 7", new UserNotFoundException(7))))
+				.isEqualTo(SalesOutcome.USER_NOT_FOUND);
+		assertThat(SalesOutcome.of(new InsufficientInventoryException("Insufficient inventory for vehicle 3")))
+				.isEqualTo(SalesOutcome.INSUFFICIENT_INVENTORY);
+		assertThat(SalesOutcome.of(new UserServiceException("Failed to fetch user data", new RejectedExecutionException())))
+				.isEqualTo(SalesOutcome.USER_SERVICE_ERROR);
+		assertThat(SalesOutcome.of(new DataAccessResourceFailureException("down", new SQLException())))
+				.isEqualTo(SalesOutcome.DB_ERROR);
+		assertThat(SalesOutcome.of(new IllegalArgumentException("Page size must be greater than 0")))
+				.isEqualTo(SalesOutcome.INVALID_REQUEST);
+		assertThat(SalesOutcome.of(new RuntimeException("boom"))).isEqualTo(SalesOutcome.ERROR);
+	}
+
+	@Test
+	void classifiesUnrecordedRequestsByStatus() {
+		assertThat(SalesOutcome.ofStatus(200)).isEqualTo(SalesOutcome.SUCCESS);
+		assertThat(SalesOutcome.ofStatus(404)).isEqualTo(SalesOutcome.NOT_FOUND);
+		assertThat(SalesOutcome.ofStatus(400)).isEqualTo(SalesOutcome.INVALID_REQUEST);
+		assertThat(SalesOutcome.ofStatus(503)).isEqualTo(SalesOutcome.ERROR);
+	}
+}
@@ -0,0 +1,109 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Checks the sold-out bookkeeping, that locks taken in a transaction are held until it completes, and that
+ * contended vehicles time out rather than wait forever.
+ */
+class VehicleAdmissionControlTests {
+
+	private final VehicleAdmissionControl admission = new VehicleAdmissionControl(new SimpleMeterRegistry(),
+			16, Duration.ofMillis(100), Duration.ofMinutes(1));
+
+	@Test
+	void rejectsVehicleNamedInInventoryError() {
+		admission.rejectedForInventory(List.of(vehicle(3), vehicle(4)), "Insufficient inventory for vehicle ID 4");
+
+		assertThatThrownBy(() -> admission.admit(List.of(vehicle(4)))).isInstanceOf(InsufficientInventoryException.class);
+		assertThatCode(() -> admission.admit(List.of(vehicle(3))).close()).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsOnlyVehicleWhenErrorNamesNone() {
+		admission.rejectedForInventory(List.of(vehicle(5), vehicle(5)), "Insufficient inventory");
+
+		assertThatThrownBy(() -> admission.admit(List.of(vehicle(5)))).isInstanceOf(InsufficientInventoryException.class);
+	}
+
+	@Test
+	void leavesMultiVehicleOrderAloneWhenErrorNamesNone() {
+		admission.rejectedForInventory(List.of(vehicle(6), vehicle(7)), "Insufficient inventory");
+
+		assertThatCode(() -> admission.admit(List.of(vehicle(6), vehicle(7))).close()).doesNotThrowAnyException();
+	}
+
+	@Test
+	void timesOutWhileVehicleIsHeldByAnotherOrder() throws InterruptedException {
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try (VehicleAdmissionControl.Admission held = admission.admit(List.of(vehicle(8)))) {
+				locked.countDown();
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		holder.start();
+		locked.await();
+		try {
+			assertThatThrownBy(() -> admission.admit(List.of(vehicle(8)))).hasMessageContaining("busy");
+		} finally {
+			release.countDown();
+			holder.join();
+		}
+		assertThatCode(() -> admission.admit(List.of(vehicle(8))).close()).doesNotThrowAnyException();
+	}
+
+	@Test
+	void holdsLocksOfEveryOrderUntilTransactionCompletes() throws Exception {
+		// Two orders of one bulk chunk, each closing its admission once written
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			admission.admit(List.of(vehicle(9))).close();
+			admission.admit(List.of(vehicle(9), vehicle(10))).close();
+
+			assertThatThrownBy(() -> admitElsewhere(vehicle(9))).hasMessageContaining("busy");
+			assertThatThrownBy(() -> admitElsewhere(vehicle(10))).hasMessageContaining("busy");
+
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertThatCode(() -> admitElsewhere(vehicle(9))).doesNotThrowAnyException();
+		assertThatCode(() -> admitElsewhere(vehicle(10))).doesNotThrowAnyException();
+	}
+
+	// Admits and releases the vehicle on another thread, as a concurrent order would
+	private void admitElsewhere(VehiclePurchaseRequest vehicle) throws Exception {
+		try {
+			CompletableFuture.runAsync(() -> admission.admit(List.of(vehicle)).close()).get();
+		} catch (ExecutionException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
+	private static VehiclePurchaseRequest vehicle(int vehicleId) {
+		VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+		vehicle.setVehicleId(vehicleId);
+		vehicle.setCount(1);
+		return vehicle;
+	}
+}
@@ -0,0 +1,127 @@
+package com.salesapplication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import com.salesapplication.exception.InsufficientInventoryException;
+import com.salesapplication.model.VehiclePurchaseRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Checks the local stock checks against a stubbed vehicle service.
+ */
+class VehicleAvailabilityCacheTests {
+
+	private final AtomicInteger serviceCount = new AtomicInteger(5);
+
+	private final AtomicInteger serviceStatus = new AtomicInteger(200);
+
+	private final AtomicInteger serviceCalls = new AtomicInteger();
+
+	private final AtomicReference<Runnable> duringServiceCall = new AtomicReference<>(() -> { });
+
+	private final VehicleAvailabilityCache cache = new VehicleAvailabilityCache(stubVehicleService(), new SimpleMeterRegistry(),
+			"http://vehicles/vehicles/", 100, Duration.ofMinutes(15), 2, Duration.ofSeconds(5));
+
+	@Test
+	void rejectsOrderExceedingStock() {
+		cache.preload(List.of(vehicle(1, 1)));
+
+		assertThatCode(() -> cache.checkAvailable(List.of(vehicle(1, 3), vehicle(1, 2)))).doesNotThrowAnyException();
+		assertThatThrownBy(() -> cache.checkAvailable(List.of(vehicle(1, 4), vehicle(1, 2))))
+				.isInstanceOf(InsufficientInventoryException.class)
+				.hasMessageContaining("vehicle ID 1");
+	}
+
+	@Test
+	void decrementsOnSaleAndReconcilesWithService() {
+		cache.preload(List.of(vehicle(2, 1)));
+		cache.decrementAfterCommit(List.of(vehicle(2, 4)));
+
+		assertThatThrownBy(() -> cache.checkAvailable(List.of(vehicle(2, 2)))).isInstanceOf(InsufficientInventoryException.class);
+
+		cache.reconcile();
+
+		assertThatCode(() -> cache.checkAvailable(List.of(vehicle(2, 5)))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void keepsSaleCommittedWhileReconcileCallIsInFlight() {
+		cache.preload(List.of(vehicle(6, 1)));
+		// The service answered with the count before this sale reached the database
+		duringServiceCall.set(() -> cache.decrementAfterCommit(List.of(vehicle(6, 2))));
+
+		cache.reconcile();
+
+		assertThatCode(() -> cache.checkAvailable(List.of(vehicle(6, 3)))).doesNotThrowAnyException();
+		assertThatThrownBy(() -> cache.checkAvailable(List.of(vehicle(6, 4)))).isInstanceOf(InsufficientInventoryException.class);
+	}
+
+	@Test
+	void reconcilesMoreVehiclesThanOneBatch() {
+		List<VehiclePurchaseRequest> vehicles = List.of(vehicle(10, 5), vehicle(11, 5), vehicle(12, 5), vehicle(13, 5), vehicle(14, 5));
+		cache.preload(vehicles);
+		cache.decrementAfterCommit(vehicles);
+		serviceCalls.set(0);
+
+		cache.reconcile();
+
+		assertThat(serviceCalls).hasValue(vehicles.size());
+		assertThatCode(() -> cache.checkAvailable(vehicles)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void letsOrderThroughWhenServiceIsDown() {
+		serviceStatus.set(503);
+		cache.preload(List.of(vehicle(3, 50)));
+
+		assertThatCode(() -> cache.checkAvailable(List.of(vehicle(3, 50)))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void checkOnlyReadsPreloadedCounts() {
+		assertThatCode(() -> cache.checkAvailable(List.of(vehicle(4, 50)))).doesNotThrowAnyException();
+		assertThat(serviceCalls).hasValue(0);
+
+		cache.preload(List.of(vehicle(4, 1), vehicle(5, 1)));
+
+		assertThat(serviceCalls).hasValue(2);
+		assertThatThrownBy(() -> cache.checkAvailable(List.of(vehicle(4, 50)))).isInstanceOf(InsufficientInventoryException.class);
+	}
+
+	private RestTemplate stubVehicleService() {
+		return new RestTemplate((uri, httpMethod) -> {
+			serviceCalls.incrementAndGet();
+			String id = uri.getPath().substring(uri.getPath().lastIndexOf('/') + 1);
+			MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+			MockClientHttpResponse response = new MockClientHttpResponse(
+					("{\"vehicleId\":" + id + ",\"availableCount\":" + serviceCount.get() + "}").getBytes(StandardCharsets.UTF_8),
+					HttpStatus.valueOf(serviceStatus.get()));
+			response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+			request.setResponse(response);
+			duringServiceCall.get().run();
+			return request;
+		});
+	}
+
+	private static VehiclePurchaseRequest vehicle(int vehicleId, int count) {
+		VehiclePurchaseRequest vehicle = new VehiclePurchaseRequest();
+		vehicle.setVehicleId(vehicleId);
+		vehicle.setCount(count);
+		return vehicle;
+	}
+}